@@ -0,0 +1,115 @@
+package com.supportdesk;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load harness for the request execution mode: many concurrent clients list a customer's tickets
+ * over HTTP, once with requests on Tomcat's platform-thread pool and once on virtual threads. JMH
+ * reports throughput, and in sample mode the latency percentiles (p0.99 is the p99). Client threads
+ * outnumber Tomcat's 200 workers so that the platform pool saturates. Virtual threads need a Java 21
+ * runtime; on older JVMs Spring Boot ignores the switch and both runs use platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+public class RequestExecutionBenchmark {
+    private static final int TICKETS = 200;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"20"})
+    public int dbPoolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest listing;
+
+    @Setup
+    public void startApplication() {
+        Map<String, Object> properties = TestDatabase.properties("request_execution");
+        properties.put("server.port", "0");
+        properties.put("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        properties.put("spring.datasource.hikari.maximum-pool-size", String.valueOf(dbPoolSize));
+        // Waiting for a connection is part of the latency under load, not a failed request
+        properties.put("spring.datasource.hikari.connection-timeout", "30000");
+        properties.put("logging.level.root", "WARN");
+        // As command line arguments, which take precedence over application.properties
+        context = new SpringApplicationBuilder(SupportDeskApplication.class).run(properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            System.err.println("Virtual threads need Java 21; this run uses platform threads");
+        }
+
+        User customer = customer(context.getBean(UserRepository.class));
+        TicketRepository ticketRepository = context.getBean(TicketRepository.class);
+        for (int i = 0; i < TICKETS; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setTitle("Load ticket " + i);
+            ticket.setDescription("Listed by the request execution benchmark");
+            ticket.setCustomer(customer);
+            ticketRepository.save(ticket);
+        }
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+        listing = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tickets/customer/"
+                + customer.getId() + "?limit=50")).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listCustomerTickets() throws Exception {
+        HttpResponse<byte[]> response = client.send(listing, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Listing failed with status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private static User customer(UserRepository userRepository) {
+        return userRepository.findByEmail("load-customer@example.com").orElseGet(() -> {
+            User user = new User();
+            user.setEmail("load-customer@example.com");
+            user.setPassword("x");
+            user.setFirstName("Load");
+            user.setLastName("Test");
+            user.setRole(User.UserRole.CUSTOMER);
+            return userRepository.save(user);
+        });
+    }
+}
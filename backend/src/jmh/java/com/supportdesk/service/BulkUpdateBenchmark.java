@@ -0,0 +1,110 @@
+package com.supportdesk.service;
+
+import com.supportdesk.SupportDeskApplication;
+import com.supportdesk.TestDatabase;
+import com.supportdesk.dto.BulkResult;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changing the priority of many tickets: one service call per ticket, the way the frontend used to
+ * send one request per ticket, against a single bulk call that reads them with one query and writes
+ * them as one JDBC batch. Each invocation flips every ticket between two priorities, so every row is
+ * really written. Runs the application without its web server on embedded PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BulkUpdateBenchmark {
+    private static final Ticket.TicketPriority[] PRIORITIES = {Ticket.TicketPriority.LOW, Ticket.TicketPriority.HIGH};
+
+    @Param({"100", "1000"})
+    public int tickets;
+
+    private ConfigurableApplicationContext context;
+    private TicketService ticketService;
+    private Long agentId;
+    private final List<Long> ticketIds = new ArrayList<>();
+    private int round;
+
+    @Setup
+    public void startApplication() {
+        Map<String, Object> properties = TestDatabase.properties("bulk_update_" + tickets);
+        properties.put("spring.main.web-application-type", "none");
+        properties.put("logging.level.root", "WARN");
+        // As command line arguments, which take precedence over application.properties
+        context = new SpringApplicationBuilder(SupportDeskApplication.class).run(properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new));
+        ticketService = context.getBean(TicketService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User customer = userRepository.save(user("bulk-customer@example.com", User.UserRole.CUSTOMER));
+        agentId = userRepository.save(user("bulk-agent@example.com", User.UserRole.AGENT)).getId();
+
+        TicketRepository ticketRepository = context.getBean(TicketRepository.class);
+        for (int i = 0; i < tickets; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setTitle("Bulk ticket " + i);
+            ticket.setDescription("Updated by the bulk update benchmark");
+            ticket.setCustomer(customer);
+            ticketIds.add(ticketRepository.save(ticket).getId());
+        }
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int oneCallPerTicket() {
+        Ticket.TicketPriority priority = PRIORITIES[round++ % PRIORITIES.length];
+        int updated = 0;
+        for (Long ticketId : ticketIds) {
+            ticketService.updateTicketPriority(ticketId, priority, agentId);
+            updated++;
+        }
+        return updated;
+    }
+
+    @Benchmark
+    public int bulkCall() {
+        Ticket.TicketPriority priority = PRIORITIES[round++ % PRIORITIES.length];
+        List<BulkResult> results = ticketService.bulkUpdatePriority(ticketIds, priority, agentId);
+        return (int) results.stream().filter(BulkResult::isSuccess).count();
+    }
+
+    private static User user(String email, User.UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setFirstName("Bulk");
+        user.setLastName("Benchmark");
+        user.setRole(role);
+        return user;
+    }
+}
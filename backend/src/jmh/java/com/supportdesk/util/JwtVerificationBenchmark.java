@@ -0,0 +1,119 @@
+package com.supportdesk.util;
+
+import com.supportdesk.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import javax.crypto.SecretKey;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of resolving a token's caller: the way it used to be done (signing key and parser
+ * rebuilt, signature verified once for the user ID and again for the email), with a reused key and
+ * parser but no cache, and through JwtTokenProvider, where a token already seen is a cache lookup.
+ * The contended variants run the cached lookup on 8 threads at once, through the provider and through
+ * the synchronized LRU map it used before; other thread counts with -t, e.g. -Djmh.args="-t 32 contended".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtVerificationBenchmark {
+    // Same length as the provider's secret; HMAC cost does not depend on the key's content
+    private static final String SECRET = "benchmark-secret-key-at-least-32-characters-long-for-hs256-algorithm";
+
+    private JwtTokenProvider provider;
+    private String providerToken;
+
+    private JwtParser parser;
+    private String token;
+
+    // The provider's cache before: an access-ordered map behind one lock, taken by every lookup
+    private Map<String, Claims> lockedCache;
+
+    @Setup
+    public void tokens() {
+        provider = new JwtTokenProvider();
+        providerToken = provider.generateToken(42L, "agent@example.com", "Bench", "Mark", "AGENT");
+        provider.getAuthenticatedUser(providerToken);
+
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        parser = Jwts.parser().verifyWith(key).build();
+        token = Jwts.builder()
+                .subject("42")
+                .claim("email", "agent@example.com")
+                .claim("firstName", "Bench")
+                .claim("lastName", "Mark")
+                .claim("role", "AGENT")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 86400000))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+
+        lockedCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > 10000;
+            }
+        });
+        lockedCache.put(token, parser.parseSignedClaims(token).getPayload());
+    }
+
+    @Benchmark
+    public String rebuiltKeyAndParserTwice() {
+        Claims forUserId = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload();
+        Claims forEmail = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload();
+        return forUserId.getSubject() + forEmail.get("email", String.class);
+    }
+
+    @Benchmark
+    public String reusedParserOnce() {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        return claims.getSubject() + claims.get("email", String.class);
+    }
+
+    @Benchmark
+    public AuthenticatedUser cachedVerification() {
+        return provider.getAuthenticatedUser(providerToken);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AuthenticatedUser contendedCachedVerification() {
+        return provider.getAuthenticatedUser(providerToken);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public AuthenticatedUser contendedLockedCache() {
+        // The same expiry check and caller as the provider's, only the lookup differs
+        Claims claims = lockedCache.get(token);
+        if (!claims.getExpiration().after(new Date())) {
+            throw new IllegalStateException("Token expired during the run");
+        }
+        return new AuthenticatedUser(Long.parseLong(claims.getSubject()), claims.get("email", String.class),
+                claims.get("firstName", String.class), claims.get("lastName", String.class),
+                User.UserRole.valueOf(claims.get("role", String.class)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.supportdesk.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+
+/**
+ * Primary and read replica connection pools, used when supportdesk.datasource.replica.url is set.
+ * Without it Spring Boot's single pool serves everything. The replica pool takes the primary's
+ * driver and credentials unless overridden, and its own pool settings under
+ * supportdesk.datasource.replica.hikari.
+ */
+@Configuration
+@ConditionalOnProperty(name = "supportdesk.datasource.replica.url")
+public class DataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("supportdesk.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${supportdesk.datasource.replica.url}") String url,
+            @Value("${supportdesk.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${supportdesk.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${supportdesk.datasource.replica.max-lag-ms:2000}") long maxLagMillis,
+            @Value("${supportdesk.datasource.replica.sticky-ms:5000}") long stickyMillis) {
+        return new ReplicaMonitor(primary, replica, maxLagMillis, stickyMillis);
+    }
+
+    /**
+     * The data source JPA, Flyway and JdbcTemplate use; connections are only taken from a pool at the
+     * first statement, once the transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica, ReplicaMonitor replicaMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, replicaMonitor));
+    }
+}
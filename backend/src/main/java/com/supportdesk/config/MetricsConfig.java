@@ -0,0 +1,65 @@
+package com.supportdesk.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportdesk.util.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Metrics beyond what the actuator records on its own (HTTP requests, repository invocations,
+ * Hikari pools): SQL statement counts and the time spent writing JSON response bodies.
+ */
+@Configuration
+public class MetricsConfig {
+    /**
+     * Lets Hibernate report every statement it prepares to the statement counter
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    /**
+     * Replaces Spring Boot's Jackson converter with one that times every body it writes as
+     * supportdesk.json.serialization; the time includes writing to the response stream
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    sample.stop(Timer.builder("supportdesk.json.serialization")
+                            .description("Time to serialize a response body to JSON")
+                            .tag("uri", currentUri())
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+                }
+            }
+        };
+    }
+
+    // URI pattern of the request being answered; event streams write outside any request
+    private static String currentUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object pattern = attributes != null
+                ? attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        return pattern != null ? pattern.toString() : "NONE";
+    }
+}
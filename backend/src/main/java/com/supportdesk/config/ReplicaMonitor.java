@@ -0,0 +1,155 @@
+package com.supportdesk.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.supportdesk.util.AuthenticatedUser;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether the read replica may serve a read. A heartbeat row is written to the primary and
+ * read back from the replica; while the replica's copy is more than maxLagMillis behind (or cannot be
+ * read at all) every read goes to the primary. Callers that just wrote stay on the primary for
+ * stickyMillis afterwards so they always read their own writes.
+ */
+public class ReplicaMonitor implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final Cache<String, Boolean> recentWriters;
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    // Unusable until the first heartbeat comes back, so startup reads go to the primary
+    private volatile boolean replicaUsable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaMonitor(DataSource primary, DataSource replica, long maxLagMillis, long stickyMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(stickyMillis))
+                .build();
+    }
+
+    /**
+     * Write a new heartbeat to the primary and measure how far behind the replica's copy is
+     */
+    @Scheduled(fixedDelayString = "${supportdesk.datasource.replica.check-ms:500}")
+    public synchronized void check() {
+        boolean usable;
+        try {
+            long beat = System.currentTimeMillis();
+            primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", beat);
+            Long seen = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            // Caught up if the replica already shows this beat (or a later one from another node), otherwise
+            // behind by the age of the newest beat it has, which is about one check interval when healthy
+            long newest = seen != null ? seen : 0;
+            lagMillis = newest >= beat ? 0 : System.currentTimeMillis() - newest;
+            usable = lagMillis <= maxLagMillis;
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Read replica heartbeat failed", e);
+            }
+        }
+        if (usable != replicaUsable) {
+            log.info("Read replica {} (lag {} ms)", usable ? "in use" : "bypassed, reading from primary", lagMillis);
+        }
+        replicaUsable = usable;
+    }
+
+    /**
+     * Whether a read-only transaction of the current caller may use the replica; counts the decision
+     */
+    public boolean canRead() {
+        String caller = callerKey();
+        boolean replica = replicaUsable && (caller == null || recentWriters.getIfPresent(caller) == null);
+        (replica ? replicaReads : primaryReads).increment();
+        return replica;
+    }
+
+    /**
+     * Note that the current caller is writing, keeping its reads on the primary until stickyMillis
+     * after its transaction completes
+     */
+    public void onWrite() {
+        String caller = callerKey();
+        if (caller == null) {
+            return;
+        }
+        recentWriters.put(caller, Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    recentWriters.put(caller, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    // The authenticated user, else the client address; null for background work, which has no session to keep consistent
+    private static String callerKey() {
+        Optional<AuthenticatedUser> user = AuthenticatedUser.current();
+        if (user.isPresent()) {
+            return "user:" + user.get().getId();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "addr:" + attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    /**
+     * Publish the replica's lag and state and how many read-only transactions each side served
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("supportdesk.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replica heartbeat lag, -1 when the replica cannot be read")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("supportdesk.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .register(registry);
+        FunctionCounter.builder("supportdesk.replica.reads", replicaReads, LongAdder::sum)
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("supportdesk.replica.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary")
+                .register(registry);
+    }
+
+    /**
+     * Replica state and how many read-only transactions each side served
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("replicaUsable", replicaUsable);
+        stats.put("lagMillis", lagMillis);
+        stats.put("replicaReads", replicaReads.sum());
+        stats.put("primaryReads", primaryReads.sum());
+        return stats;
+    }
+}
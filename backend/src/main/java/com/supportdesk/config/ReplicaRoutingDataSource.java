@@ -0,0 +1,43 @@
+package com.supportdesk.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions declared by this application (@Transactional(readOnly = true) on a
+ * service method) to the replica when the monitor allows it, and everything else to the primary.
+ * The implicit read-only transactions Spring Data opens around findById/findAll stay on the primary,
+ * so lookups made on the way to a write and cache loads always see the latest data. Must be wrapped
+ * in a LazyConnectionDataSourceProxy so the decision is made after the transaction has started.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final String APPLICATION_PACKAGE = "com.supportdesk.";
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaMonitor monitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaMonitor monitor) {
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            monitor.onWrite();
+            return Target.PRIMARY;
+        }
+        // Declarative transactions are named after the method that started them
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        boolean declared = name != null && name.startsWith(APPLICATION_PACKAGE);
+        return declared && monitor.canRead() ? Target.REPLICA : Target.PRIMARY;
+    }
+}
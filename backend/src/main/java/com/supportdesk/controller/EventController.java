@@ -0,0 +1,56 @@
+package com.supportdesk.controller;
+
+import com.supportdesk.service.AccessDeniedException;
+import com.supportdesk.service.EventStreamService;
+import com.supportdesk.util.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/events")
+@CrossOrigin(origins = "*")
+public class EventController {
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    /**
+     * Stream new messages and changes for one ticket to an agent or the ticket's customer
+     * GET /events/ticket/{ticketId}?access_token=
+     */
+    @GetMapping(value = "/ticket/{ticketId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToTicket(@PathVariable Long ticketId) {
+        Optional<AuthenticatedUser> caller = AuthenticatedUser.current();
+        if (caller.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(eventStreamService.subscribeToTicket(ticketId, caller.get()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Stream changes for every ticket in the calling agent's queue
+     * GET /events/agent/{agentId}?access_token=
+     */
+    @GetMapping(value = "/agent/{agentId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToAgent(@PathVariable Long agentId) {
+        Optional<AuthenticatedUser> caller = AuthenticatedUser.current();
+        if (caller.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(eventStreamService.subscribeToAgent(agentId, caller.get()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+}
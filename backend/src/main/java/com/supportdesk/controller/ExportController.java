@@ -0,0 +1,94 @@
+package com.supportdesk.controller;
+
+import com.supportdesk.dto.TicketFilter;
+import com.supportdesk.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Stream tickets matching the filters as CSV or NDJSON, optionally gzip-compressed
+     * GET /export/tickets?format=csv|ndjson&gzip=true&status=OPEN&agentId=2&from=...&to=...
+     */
+    @GetMapping("/tickets")
+    public void exportTickets(@ModelAttribute TicketFilter filter,
+                              @RequestParam(defaultValue = "csv") String format,
+                              @RequestParam(defaultValue = "false") boolean gzip,
+                              HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = parseFormat(format, response);
+        if (exportFormat == null) {
+            return;
+        }
+        try (Writer out = startExport(response, "tickets", exportFormat, gzip)) {
+            exportService.exportTickets(filter, exportFormat, out);
+        }
+    }
+
+    /**
+     * Stream message threads, for one ticket or all tickets, as CSV or NDJSON, optionally gzip-compressed
+     * GET /export/messages?format=csv|ndjson&gzip=true&ticketId=1&from=...&to=...
+     */
+    @GetMapping("/messages")
+    public void exportMessages(@RequestParam(required = false) Long ticketId,
+                               @RequestParam(required = false)
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                               @RequestParam(required = false)
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                               @RequestParam(defaultValue = "csv") String format,
+                               @RequestParam(defaultValue = "false") boolean gzip,
+                               HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = parseFormat(format, response);
+        if (exportFormat == null) {
+            return;
+        }
+        try (Writer out = startExport(response, "messages", exportFormat, gzip)) {
+            exportService.exportMessages(ticketId, from, to, exportFormat, out);
+        }
+    }
+
+    private static ExportService.Format parseFormat(String format, HttpServletResponse response) throws IOException {
+        try {
+            return ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType("text/plain");
+            response.getWriter().write("Error: Unsupported export format " + format);
+            return null;
+        }
+    }
+
+    // Commit the headers and open a buffered UTF-8 writer over the (optionally gzipped) response body
+    private static Writer startExport(HttpServletResponse response, String name, ExportService.Format format,
+                                      boolean gzip) throws IOException {
+        boolean csv = format == ExportService.Format.CSV;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(csv ? "text/csv" : ImportController.NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"");
+        OutputStream body = response.getOutputStream();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = new GZIPOutputStream(body, 8192, true);
+        }
+        return new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 64 * 1024);
+    }
+}
@@ -0,0 +1,126 @@
+package com.supportdesk.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supportdesk.dto.ImportResult;
+import com.supportdesk.dto.MessageImportRecord;
+import com.supportdesk.dto.TicketImportRecord;
+import com.supportdesk.service.ImportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/import")
+@CrossOrigin(origins = "*")
+public class ImportController {
+    public static final int MAX_RECORDS = 10000;
+    public static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Import historical tickets
+     * POST /import/tickets  [{"title": ..., "description": ..., "customerId": ..., ...}, ...]
+     */
+    @PostMapping("/tickets")
+    public ResponseEntity<?> importTickets(@RequestBody List<TicketImportRecord> records) {
+        try {
+            checkSize(records);
+            return ResponseEntity.ok(importService.importTickets(records, 1));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Import historical messages into existing tickets
+     * POST /import/messages  [{"ticketId": ..., "senderId": ..., "content": ..., ...}, ...]
+     */
+    @PostMapping("/messages")
+    public ResponseEntity<?> importMessages(@RequestBody List<MessageImportRecord> records) {
+        try {
+            checkSize(records);
+            return ResponseEntity.ok(importService.importMessages(records, 1));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stream-import tickets from an NDJSON body (one record per line)
+     * POST /import/tickets  Content-Type: application/x-ndjson
+     * Responds with one NDJSON progress line per committed chunk and a final summary line
+     */
+    @PostMapping(value = "/tickets", consumes = NDJSON)
+    public void importTicketsNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        Writer out = startNdjson(response);
+        try {
+            ImportResult total = importService.importTicketsNdjson(body, chunk -> writeLine(out, chunk));
+            writeSummary(out, total);
+        } catch (Exception e) {
+            writeLine(out, Map.of("error", "Import aborted: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream-import messages from an NDJSON body (one record per line)
+     * POST /import/messages  Content-Type: application/x-ndjson
+     * Responds with one NDJSON progress line per committed chunk and a final summary line
+     */
+    @PostMapping(value = "/messages", consumes = NDJSON)
+    public void importMessagesNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        Writer out = startNdjson(response);
+        try {
+            ImportResult total = importService.importMessagesNdjson(body, chunk -> writeLine(out, chunk));
+            writeSummary(out, total);
+        } catch (Exception e) {
+            writeLine(out, Map.of("error", "Import aborted: " + e.getMessage()));
+        }
+    }
+
+    private static Writer startNdjson(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        return response.getWriter();
+    }
+
+    private void writeSummary(Writer out, ImportResult total) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("done", true);
+        summary.put("imported", total.getImported());
+        summary.put("failed", total.getFailed());
+        writeLine(out, summary);
+    }
+
+    private void writeLine(Writer out, Object value) {
+        try {
+            out.write(objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void checkSize(List<?> records) {
+        if (records.size() > MAX_RECORDS) {
+            throw new RuntimeException("At most " + MAX_RECORDS + " records can be imported per request");
+        }
+    }
+}
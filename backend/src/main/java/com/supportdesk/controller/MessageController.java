@@ -1,8 +1,11 @@
 package com.supportdesk.controller;
 
+import com.supportdesk.dto.ThreadMessage;
 import com.supportdesk.model.Message;
+import com.supportdesk.service.AccessDeniedException;
 import com.supportdesk.service.MessageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,7 +29,7 @@ public class MessageController {
     public ResponseEntity<?> addReply(@RequestBody Map<String, Object> request) {
         try {
             Long ticketId = Long.parseLong(request.get("ticketId").toString());
-            Long senderId = Long.parseLong(request.get("senderId").toString());
+            Long senderId = request.get("senderId") != null ? Long.parseLong(request.get("senderId").toString()) : null;
             String content = request.get("content").toString();
 
             Message message = messageService.addReply(ticketId, senderId, content);
@@ -42,6 +45,8 @@ public class MessageController {
             response.put("message", "Reply added successfully");
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -55,7 +60,7 @@ public class MessageController {
     public ResponseEntity<?> addNote(@RequestBody Map<String, Object> request) {
         try {
             Long ticketId = Long.parseLong(request.get("ticketId").toString());
-            Long senderId = Long.parseLong(request.get("senderId").toString());
+            Long senderId = request.get("senderId") != null ? Long.parseLong(request.get("senderId").toString()) : null;
             String content = request.get("content").toString();
 
             Message message = messageService.addNote(ticketId, senderId, content);
@@ -71,6 +76,8 @@ public class MessageController {
             response.put("message", "Note added successfully");
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -78,13 +85,26 @@ public class MessageController {
 
     /**
      * Get all messages for a ticket
-     * GET /messages/ticket/{ticketId}
+     * GET /messages/ticket/{ticketId}?since=
+     * With since (the highest threadSeq already seen) only later messages are returned; If-None-Match
+     * is answered with 304 when unchanged
      */
     @GetMapping("/ticket/{ticketId}")
-    public ResponseEntity<?> getTicketMessages(@PathVariable Long ticketId) {
+    public ResponseEntity<?> getTicketMessages(
+            @PathVariable Long ticketId,
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Message> messages = messageService.getTicketMessages(ticketId);
-            return ResponseEntity.ok(messages);
+            String etag = "\"" + ticketId + "-" + (since != null ? since : "all") + "-"
+                    + messageService.getThreadVersion(ticketId) + "\"";
+            if (etag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
+            List<ThreadMessage> messages = since != null
+                    ? messageService.getTicketMessagesSince(ticketId, since)
+                    : messageService.getTicketMessages(ticketId);
+            return ResponseEntity.ok().eTag(etag).body(messages);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -1,6 +1,12 @@
 package com.supportdesk.controller;
 
+import com.supportdesk.dto.BulkResult;
+import com.supportdesk.dto.CursorPage;
+import com.supportdesk.dto.TicketFilter;
+import com.supportdesk.dto.TicketSummary;
 import com.supportdesk.model.Ticket;
+import com.supportdesk.service.AccessDeniedException;
+import com.supportdesk.service.TicketConflictException;
 import com.supportdesk.service.TicketService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,6 +21,8 @@ import java.util.Optional;
 @RequestMapping("/tickets")
 @CrossOrigin(origins = "*")
 public class TicketController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private TicketService ticketService;
 
@@ -52,13 +60,17 @@ public class TicketController {
 
     /**
      * Get all tickets for a customer
-     * GET /tickets/customer/{customerId}
+     * GET /tickets/customer/{customerId}?before=&limit=&status=&priority=&from=&to=
      */
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<?> getTicketsByCustomer(@PathVariable Long customerId) {
+    public ResponseEntity<?> getTicketsByCustomer(
+            @PathVariable Long customerId,
+            @ModelAttribute TicketFilter filter,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Ticket> tickets = ticketService.getTicketsByCustomer(customerId);
-            return ResponseEntity.ok(tickets);
+            filter.setCustomerId(customerId);
+            return pageResponse(ticketService.getTickets(filter, before, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -66,13 +78,17 @@ public class TicketController {
 
     /**
      * Get all tickets assigned to an agent
-     * GET /tickets/agent/{agentId}
+     * GET /tickets/agent/{agentId}?before=&limit=&status=&priority=&from=&to=
      */
     @GetMapping("/agent/{agentId}")
-    public ResponseEntity<?> getTicketsByAgent(@PathVariable Long agentId) {
+    public ResponseEntity<?> getTicketsByAgent(
+            @PathVariable Long agentId,
+            @ModelAttribute TicketFilter filter,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Ticket> tickets = ticketService.getTicketsByAgent(agentId);
-            return ResponseEntity.ok(tickets);
+            filter.setAgentId(agentId);
+            return pageResponse(ticketService.getTickets(filter, before, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -80,18 +96,83 @@ public class TicketController {
 
     /**
      * Get unassigned tickets
-     * GET /tickets/unassigned
+     * GET /tickets/unassigned?before=&limit=&status=&priority=&from=&to=
      */
     @GetMapping("/unassigned")
-    public ResponseEntity<?> getUnassignedTickets() {
+    public ResponseEntity<?> getUnassignedTickets(
+            @ModelAttribute TicketFilter filter,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Ticket> tickets = ticketService.getUnassignedTickets();
-            return ResponseEntity.ok(tickets);
+            filter.setUnassigned(true);
+            return pageResponse(ticketService.getTickets(filter, before, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Full-text search over titles, descriptions and messages, best match first
+     * GET /tickets/search?q=&offset=&limit=&status=&priority=&agentId=&customerId=&from=&to=
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTickets(
+            @RequestParam String q,
+            @ModelAttribute TicketFilter filter,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(ticketService.searchTickets(q, filter, offset, limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get dashboard counts across all tickets
+     * GET /tickets/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getOverallStats() {
+        return ResponseEntity.ok(ticketService.getOverallStats());
+    }
+
+    /**
+     * Get the routing strategy in use and its decision latency statistics
+     * GET /tickets/routing/stats
+     */
+    @GetMapping("/routing/stats")
+    public ResponseEntity<?> getRoutingStats() {
+        return ResponseEntity.ok(ticketService.getRoutingStats());
+    }
+
+    /**
+     * Get ticket cache size and hit/miss statistics
+     * GET /tickets/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(ticketService.getCacheStats());
+    }
+
+    /**
+     * Get dashboard counts for an agent's assigned tickets
+     * GET /tickets/stats/agent/{agentId}
+     */
+    @GetMapping("/stats/agent/{agentId}")
+    public ResponseEntity<?> getAgentStats(@PathVariable Long agentId) {
+        return ResponseEntity.ok(ticketService.getAgentStats(agentId));
+    }
+
+    /**
+     * Get dashboard counts for a customer's tickets
+     * GET /tickets/stats/customer/{customerId}
+     */
+    @GetMapping("/stats/customer/{customerId}")
+    public ResponseEntity<?> getCustomerStats(@PathVariable Long customerId) {
+        return ResponseEntity.ok(ticketService.getCustomerStats(customerId));
+    }
+
     /**
      * Get ticket by ID
      * GET /tickets/{id}
@@ -111,29 +192,17 @@ public class TicketController {
         }
     }
 
-    /**
-     * Get all unassigned tickets
-     * GET /tickets/unassigned
-     */
-    @GetMapping("/unassigned")
-    public ResponseEntity<?> getUnassignedTickets() {
-        try {
-            List<Ticket> tickets = ticketService.getUnassignedTickets();
-            return ResponseEntity.ok(tickets);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
-        }
-    }
-
     /**
      * Get all tickets
-     * GET /tickets
+     * GET /tickets?before=&limit=&status=&priority=&agentId=&customerId=&from=&to=
      */
     @GetMapping
-    public ResponseEntity<?> getAllTickets() {
+    public ResponseEntity<?> getAllTickets(
+            @ModelAttribute TicketFilter filter,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Ticket> tickets = ticketService.getAllTickets();
-            return ResponseEntity.ok(tickets);
+            return pageResponse(ticketService.getTickets(filter, before, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -149,11 +218,15 @@ public class TicketController {
             @RequestBody Map<String, Object> request) {
         try {
             String status = request.get("status").toString();
-            Long userId = Long.parseLong(request.get("userId").toString());
+            Long userId = request.get("userId") != null ? Long.parseLong(request.get("userId").toString()) : null;
             Ticket.TicketStatus ticketStatus = Ticket.TicketStatus.valueOf(status.toUpperCase());
             Ticket updatedTicket = ticketService.updateTicketStatus(id, ticketStatus, userId);
 
             return ResponseEntity.ok(updatedTicket);
+        } catch (TicketConflictException e) {
+            return conflictResponse(e);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -169,11 +242,15 @@ public class TicketController {
             @RequestBody Map<String, Object> request) {
         try {
             String priority = request.get("priority").toString();
-            Long userId = Long.parseLong(request.get("userId").toString());
+            Long userId = request.get("userId") != null ? Long.parseLong(request.get("userId").toString()) : null;
             Ticket.TicketPriority ticketPriority = Ticket.TicketPriority.valueOf(priority.toUpperCase());
             Ticket updatedTicket = ticketService.updateTicketPriority(id, ticketPriority, userId);
 
             return ResponseEntity.ok(updatedTicket);
+        } catch (TicketConflictException e) {
+            return conflictResponse(e);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -192,6 +269,8 @@ public class TicketController {
             Ticket assignedTicket = ticketService.assignTicketToAgent(id, agentId);
 
             return ResponseEntity.ok(assignedTicket);
+        } catch (TicketConflictException e) {
+            return conflictResponse(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -206,8 +285,112 @@ public class TicketController {
         try {
             Ticket unassignedTicket = ticketService.unassignTicket(id);
             return ResponseEntity.ok(unassignedTicket);
+        } catch (TicketConflictException e) {
+            return conflictResponse(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Page items go in the body, newest first; the cursor for the next (older) page goes in the
+     * X-Next-Cursor header, to be passed back as before
+     */
+    private ResponseEntity<?> pageResponse(CursorPage<TicketSummary> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return builder.body(page.getItems());
+    }
+
+    /**
+     * Update the status of many tickets
+     * PATCH /tickets/bulk/status  {"ticketIds": [...], "status": "...", "userId": ...}
+     */
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<?> bulkUpdateStatus(@RequestBody Map<String, Object> request) {
+        try {
+            Ticket.TicketStatus status = Ticket.TicketStatus.valueOf(request.get("status").toString().toUpperCase());
+            Long userId = request.get("userId") != null ? Long.parseLong(request.get("userId").toString()) : null;
+            return bulkResponse(ticketService.bulkUpdateStatus(parseTicketIds(request), status, userId));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Update the priority of many tickets
+     * PATCH /tickets/bulk/priority  {"ticketIds": [...], "priority": "...", "userId": ...}
+     */
+    @PatchMapping("/bulk/priority")
+    public ResponseEntity<?> bulkUpdatePriority(@RequestBody Map<String, Object> request) {
+        try {
+            Ticket.TicketPriority priority = Ticket.TicketPriority.valueOf(request.get("priority").toString().toUpperCase());
+            Long userId = request.get("userId") != null ? Long.parseLong(request.get("userId").toString()) : null;
+            return bulkResponse(ticketService.bulkUpdatePriority(parseTicketIds(request), priority, userId));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
     }
+
+    /**
+     * Assign many tickets to an agent
+     * PATCH /tickets/bulk/assign  {"ticketIds": [...], "agentId": ...}
+     */
+    @PatchMapping("/bulk/assign")
+    public ResponseEntity<?> bulkAssign(@RequestBody Map<String, Object> request) {
+        try {
+            Long agentId = Long.parseLong(request.get("agentId").toString());
+            return bulkResponse(ticketService.bulkAssignToAgent(parseTicketIds(request), agentId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unassign many tickets
+     * PATCH /tickets/bulk/unassign  {"ticketIds": [...]}
+     */
+    @PatchMapping("/bulk/unassign")
+    public ResponseEntity<?> bulkUnassign(@RequestBody Map<String, Object> request) {
+        try {
+            return bulkResponse(ticketService.bulkUnassign(parseTicketIds(request)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A ticket update that kept losing to concurrent writers: 409 with the ticket as it is now
+     */
+    private static ResponseEntity<?> conflictResponse(TicketConflictException e) {
+        if (e.getCurrent() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getCurrent());
+    }
+
+    private static List<Long> parseTicketIds(Map<String, Object> request) {
+        Object ids = request.get("ticketIds");
+        if (!(ids instanceof List<?> list)) {
+            throw new RuntimeException("ticketIds must be a list");
+        }
+        return list.stream().map(id -> Long.parseLong(id.toString())).toList();
+    }
+
+    private static ResponseEntity<?> bulkResponse(List<BulkResult> results) {
+        long updated = results.stream().filter(BulkResult::isSuccess).count();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("updated", updated);
+        response.put("failed", results.size() - updated);
+        response.put("conflicts", results.stream().filter(BulkResult::isConflict).count());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
 }
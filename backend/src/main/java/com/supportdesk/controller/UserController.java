@@ -137,6 +137,19 @@ public class UserController {
         }
     }
 
+    /**
+     * Get user lookup cache statistics
+     * GET /users/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        try {
+            return ResponseEntity.ok(userService.getCacheStats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * Update user profile
      * PUT /users/{id}
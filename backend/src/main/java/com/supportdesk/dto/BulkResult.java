@@ -0,0 +1,33 @@
+package com.supportdesk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one ticket in a bulk operation
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult {
+    private Long ticketId;
+
+    private boolean success;
+
+    private String error; // Null on success
+
+    private boolean conflict; // Kept losing to concurrent updates; worth trying again
+
+    public static BulkResult ok(Long ticketId) {
+        return new BulkResult(ticketId, true, null, false);
+    }
+
+    public static BulkResult failed(Long ticketId, String error) {
+        return new BulkResult(ticketId, false, error, false);
+    }
+
+    public static BulkResult conflict(Long ticketId, String error) {
+        return new BulkResult(ticketId, false, error, true);
+    }
+}
@@ -0,0 +1,56 @@
+package com.supportdesk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an import: counts plus the first MAX_ERRORS per-record errors
+ */
+@Data
+@NoArgsConstructor
+public class ImportResult {
+    public static final int MAX_ERRORS = 1000;
+
+    private long imported;
+
+    private long failed;
+
+    private List<RecordError> errors = new ArrayList<>();
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void addError(long line, String error) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RecordError(line, error));
+        }
+    }
+
+    /**
+     * Add another result's counts and as many of its errors as still fit
+     */
+    public void merge(ImportResult other) {
+        imported += other.imported;
+        failed += other.failed;
+        for (RecordError error : other.errors) {
+            if (errors.size() >= MAX_ERRORS) {
+                break;
+            }
+            errors.add(error);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private long line;
+
+        private String error;
+    }
+}
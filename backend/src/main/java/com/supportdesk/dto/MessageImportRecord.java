@@ -0,0 +1,23 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Message;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One historical message to import into an existing ticket; type and timestamp are optional
+ */
+@Data
+@NoArgsConstructor
+public class MessageImportRecord {
+    private Long ticketId;
+
+    private Long senderId;
+
+    private String content;
+
+    private Message.MessageType messageType;
+
+    private LocalDateTime createdAt;
+}
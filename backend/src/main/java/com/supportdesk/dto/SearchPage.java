@@ -0,0 +1,18 @@
+package com.supportdesk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * One page of ranked search results; nextOffset is null on the last page
+ */
+@Data
+@AllArgsConstructor
+public class SearchPage<T> {
+    private List<T> items;
+
+    private long total;
+
+    private Integer nextOffset;
+}
@@ -0,0 +1,51 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Message;
+import com.supportdesk.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of one message in a ticket thread, with the sender resolved in the same query
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadMessage {
+    private Long id;
+
+    private Long ticketId;
+
+    private Long senderId;
+
+    private String senderName;
+
+    private User.UserRole senderRole;
+
+    private String content;
+
+    private Message.MessageType messageType;
+
+    private LocalDateTime createdAt;
+
+    private Long threadSeq;
+
+    /**
+     * Build a thread entry from an already loaded message
+     */
+    public static ThreadMessage of(Message message) {
+        User sender = message.getSender();
+        return new ThreadMessage(
+                message.getId(),
+                message.getTicket().getId(),
+                sender.getId(),
+                sender.getFullName(),
+                sender.getRole(),
+                message.getContent(),
+                message.getMessageType(),
+                message.getCreatedAt(),
+                message.getThreadSeq());
+    }
+}
@@ -0,0 +1,37 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Ticket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Flat ticket row for exports, with the full description
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketExportRow {
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private Ticket.TicketStatus status;
+
+    private Ticket.TicketPriority priority;
+
+    private Long customerId;
+
+    private String customerName;
+
+    private Long agentId;
+
+    private String agentName;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
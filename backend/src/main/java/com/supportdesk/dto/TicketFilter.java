@@ -0,0 +1,31 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Ticket;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for ticket listings, bound from query parameters
+ */
+@Data
+@NoArgsConstructor
+public class TicketFilter {
+    private Ticket.TicketStatus status;
+
+    private Ticket.TicketPriority priority;
+
+    private Long agentId;
+
+    private Long customerId;
+
+    private boolean unassigned;
+
+    // Created-at range, inclusive start and exclusive end
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
@@ -0,0 +1,29 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Ticket;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One historical ticket to import; status, priority and timestamps are optional
+ */
+@Data
+@NoArgsConstructor
+public class TicketImportRecord {
+    private String title;
+
+    private String description;
+
+    private Ticket.TicketStatus status;
+
+    private Ticket.TicketPriority priority;
+
+    private Long customerId;
+
+    private Long agentId; // Null if not assigned
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Ticket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One ranked full-text search result, served from the in-memory search index
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSearchHit {
+    private Long id;
+
+    private String title;
+
+    private Ticket.TicketStatus status;
+
+    private Ticket.TicketPriority priority;
+
+    private Long customerId;
+
+    private Long agentId;
+
+    private LocalDateTime createdAt;
+
+    private double score;
+}
@@ -0,0 +1,27 @@
+package com.supportdesk.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.supportdesk.model.Ticket;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Ticket counts for a dashboard; fields that do not apply to the scope are left out
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TicketStats {
+    private long total;
+
+    private Map<Ticket.TicketStatus, Long> byStatus = new EnumMap<>(Ticket.TicketStatus.class);
+
+    private Map<Ticket.TicketPriority, Long> byPriority;
+
+    private Map<Ticket.TicketStatus, Map<Ticket.TicketPriority, Long>> byStatusAndPriority;
+
+    // Only set for the overall stats
+    private Long unassigned;
+}
@@ -0,0 +1,63 @@
+package com.supportdesk.dto;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only view of a ticket for list endpoints.
+ * Built directly by a JPQL constructor expression, so no User entities are loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketSummary {
+    public static final int PREVIEW_LENGTH = 100;
+
+    private Long id;
+
+    private String title;
+
+    private Ticket.TicketStatus status;
+
+    private Ticket.TicketPriority priority;
+
+    // First PREVIEW_LENGTH characters of the description
+    private String preview;
+
+    private Long customerId;
+
+    private String customerName;
+
+    private Long agentId;
+
+    private String agentName; // Null if not assigned
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Build a summary from an already loaded ticket
+     */
+    public static TicketSummary of(Ticket ticket) {
+        String description = ticket.getDescription();
+        User agent = ticket.getAssignedAgent();
+        return new TicketSummary(
+                ticket.getId(),
+                ticket.getTitle(),
+                ticket.getStatus(),
+                ticket.getPriority(),
+                description != null && description.length() > PREVIEW_LENGTH
+                        ? description.substring(0, PREVIEW_LENGTH) : description,
+                ticket.getCustomer().getId(),
+                ticket.getCustomer().getFullName(),
+                agent != null ? agent.getId() : null,
+                agent != null ? agent.getFullName() : null,
+                ticket.getCreatedAt(),
+                ticket.getUpdatedAt());
+    }
+}
@@ -10,10 +10,18 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", uniqueConstraints = {
+        @UniqueConstraint(name = "idx_messages_ticket_thread_seq", columnNames = {"ticket_id", "thread_seq"})
+}, indexes = {
+        @Index(name = "idx_messages_ticket_id_id", columnList = "ticket_id, id"),
+        @Index(name = "idx_messages_ticket_created", columnList = "ticket_id, created_at, id"),
+        @Index(name = "idx_messages_sender", columnList = "sender_id"),
+        @Index(name = "idx_messages_type", columnList = "message_type")
+})
 public class Message {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "messages_seq")
+    @SequenceGenerator(name = "messages_seq", sequenceName = "messages_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -34,6 +42,9 @@ public class Message {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column(nullable = false, updatable = false)
+    private Long threadSeq; // Position in the ticket's thread, in commit order; the cursor for delta reads
+
     public enum MessageType {
         REPLY,           // Regular reply from customer or agent
         STATUS_UPDATE,   // System message for status changes
@@ -0,0 +1,50 @@
+package com.supportdesk.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Pending ticket history entry, written in the same transaction as the ticket change it records
+ * and deleted once the matching Message row has been inserted. An entry that cannot be written
+ * is kept with its error; once failedAt is set it is a dead letter and no longer retried.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ticket_event_outbox", indexes = {
+        @Index(name = "idx_outbox_failed_id", columnList = "failed_at, id")
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_event_outbox_seq")
+    @SequenceGenerator(name = "ticket_event_outbox_seq", sequenceName = "ticket_event_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ticketId;
+
+    @Column(nullable = false)
+    private Long senderId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Message.MessageType messageType; // STATUS_UPDATE, ASSIGNMENT
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private int attempts; // Failed tries so far
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime failedAt; // Set when the entry is given up on
+}
@@ -1,9 +1,11 @@
 package com.supportdesk.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,10 +14,19 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tickets")
+@DynamicUpdate // UPDATEs set only the changed columns, guarded by the version
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_tickets_sla_due_at", columnList = "sla_due_at"),
+        @Index(name = "idx_tickets_customer_status", columnList = "customer_id, status"),
+        @Index(name = "idx_tickets_agent_status_priority", columnList = "agent_id, status, priority"),
+        @Index(name = "idx_tickets_status_priority", columnList = "status, priority"),
+        @Index(name = "idx_tickets_priority", columnList = "priority"),
+        @Index(name = "idx_tickets_created_at", columnList = "created_at")
+})
 public class Ticket {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_seq")
+    @SequenceGenerator(name = "tickets_seq", sequenceName = "tickets_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -40,6 +51,7 @@ public class Ticket {
     @JoinColumn(name = "agent_id")
     private User assignedAgent; // Nullable if not assigned
 
+    @JsonIgnore // Loaded through /messages/ticket/{id}; serializing it here would recurse via Message.ticket
     @OneToMany(mappedBy = "ticket", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Message> messages = new ArrayList<>();
 
@@ -49,6 +61,18 @@ public class Ticket {
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    private LocalDateTime firstResponseAt; // First agent reply, null until then
+
+    private LocalDateTime slaDueAt; // Next SLA deadline, null once resolved or closed
+
+    @Version
+    @Column(nullable = false)
+    private long version; // Incremented by every update; a stale version makes the update fail
+
+    @JsonIgnore
+    @Column(nullable = false, updatable = false)
+    private long threadVersion; // Last thread position handed out, see TicketRepository.reserveThreadPositions
+
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
@@ -1,18 +1,60 @@
 package com.supportdesk.repository;
 
+import com.supportdesk.dto.ThreadMessage;
 import com.supportdesk.model.Message;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     // Find all messages for a specific ticket
     List<Message> findByTicketId(Long ticketId);
 
-    // Find all messages sent by a specific user
-    List<Message> findBySenderId(Long senderId);
+    // Find all messages sent by a specific user, with their tickets and users joined in one query
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender s JOIN FETCH m.ticket t JOIN FETCH t.customer " +
+           "LEFT JOIN FETCH t.assignedAgent WHERE s.id = :senderId")
+    List<Message> findBySenderId(@Param("senderId") Long senderId);
 
     // Find messages by type
     List<Message> findByMessageType(Message.MessageType messageType);
+
+    // Flat thread entries with the sender joined in the same SELECT
+    String THREAD_MESSAGE_SELECT =
+            "SELECT new com.supportdesk.dto.ThreadMessage(m.id, m.ticket.id, s.id, " +
+            "CONCAT(s.firstName, ' ', s.lastName), s.role, m.content, m.messageType, m.createdAt, m.threadSeq) " +
+            "FROM Message m JOIN m.sender s ";
+
+    // Load a ticket's thread oldest first, joining each sender once and never loading the ticket itself
+    @Query(THREAD_MESSAGE_SELECT + "WHERE m.ticket.id = :ticketId ORDER BY m.createdAt, m.id")
+    List<ThreadMessage> findThreadByTicketId(@Param("ticketId") Long ticketId);
+
+    // Load only the messages of a ticket thread past the given thread position, in commit order
+    @Query(THREAD_MESSAGE_SELECT + "WHERE m.ticket.id = :ticketId AND m.threadSeq > :since ORDER BY m.threadSeq")
+    List<ThreadMessage> findThreadByTicketIdSince(@Param("ticketId") Long ticketId, @Param("since") Long since);
+
+    // Forward-only stream of thread entries grouped by ticket, narrowed by the optional (null = any) filters;
+    // must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TicketRepository.EXPORT_FETCH_SIZE))
+    @Query(THREAD_MESSAGE_SELECT +
+           "WHERE (:ticketId IS NULL OR m.ticket.id = :ticketId) " +
+           "AND (CAST(:from AS LocalDateTime) IS NULL OR m.createdAt >= :from) " +
+           "AND (CAST(:to AS LocalDateTime) IS NULL OR m.createdAt < :to) " +
+           "ORDER BY m.ticket.id, m.id")
+    Stream<ThreadMessage> streamThreads(@Param("ticketId") Long ticketId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    // Content of every message of one type on tickets with fromId <= ticket ID < toId, as [ticketId, content] rows
+    @Query("SELECT m.ticket.id, m.content FROM Message m " +
+           "WHERE m.ticket.id >= :fromId AND m.ticket.id < :toId AND m.messageType = :type")
+    List<Object[]> findContentByTicketIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                              @Param("type") Message.MessageType type);
 }
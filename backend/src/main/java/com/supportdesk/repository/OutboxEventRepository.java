@@ -0,0 +1,19 @@
+package com.supportdesk.repository;
+
+import com.supportdesk.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // IDs of the oldest pending (not dead-lettered) events after afterId
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.failedAt IS NULL AND e.id > :afterId ORDER BY e.id")
+    List<Long> findPendingIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Number of dead-lettered events
+    long countByFailedAtIsNotNull();
+}
@@ -1,31 +1,147 @@
 package com.supportdesk.repository;
 
+import com.supportdesk.dto.TicketExportRow;
+import com.supportdesk.dto.TicketSummary;
 import com.supportdesk.model.Ticket;
 import com.supportdesk.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
-    // Find all tickets for a specific customer
-    List<Ticket> findByCustomerId(Long customerId);
+    // Rows per JDBC round-trip when streaming exports
+    int EXPORT_FETCH_SIZE = 1000;
 
-    // Find all tickets assigned to a specific agent
-    List<Ticket> findByAssignedAgentId(Long agentId);
+    // Count tickets per (assigned agent, status, priority), as [agentId, status, priority, count] rows;
+    // agentId is null for unassigned tickets
+    @Query("SELECT a.id, t.status, t.priority, COUNT(t) FROM Ticket t LEFT JOIN t.assignedAgent a " +
+           "GROUP BY a.id, t.status, t.priority")
+    List<Object[]> countByAgentStatusAndPriority();
 
-    // Find unassigned tickets
-    List<Ticket> findByAssignedAgentIsNull();
+    // Count tickets per (customer, status), as [customerId, status, count] rows
+    @Query("SELECT t.customer.id, t.status, COUNT(t) FROM Ticket t GROUP BY t.customer.id, t.status")
+    List<Object[]> countByCustomerAndStatus();
 
-    // Find tickets by status
-    List<Ticket> findByStatus(Ticket.TicketStatus status);
+    // IDs among the given ones that exist
+    @Query("SELECT t.id FROM Ticket t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
-    // Find tickets by priority
-    List<Ticket> findByPriority(Ticket.TicketPriority priority);
+    // Optional (null = any) filters shared by the listing and export queries; c = customer, a = agent.
+    // The JDBC driver sends a null timestamp without a type, which PostgreSQL cannot resolve in IS NULL
+    // on its own, hence the casts
+    String TICKET_FILTER =
+            "(:customerId IS NULL OR c.id = :customerId) " +
+            "AND (:agentId IS NULL OR a.id = :agentId) " +
+            "AND (:unassigned = false OR a IS NULL) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:priority IS NULL OR t.priority = :priority) " +
+            "AND (CAST(:from AS LocalDateTime) IS NULL OR t.createdAt >= :from) " +
+            "AND (CAST(:to AS LocalDateTime) IS NULL OR t.createdAt < :to) ";
 
-    // Find open tickets for a customer
-    List<Ticket> findByCustomerIdAndStatus(Long customerId, Ticket.TicketStatus status);
+    // Keyset page of ticket summaries with id < before (newest first), narrowed by the optional filters
+    @Query("SELECT new com.supportdesk.dto.TicketSummary(t.id, t.title, t.status, t.priority, " +
+           "SUBSTRING(t.description, 1, " + TicketSummary.PREVIEW_LENGTH + "), " +
+           "c.id, CONCAT(c.firstName, ' ', c.lastName), a.id, CONCAT(a.firstName, ' ', a.lastName), " +
+           "t.createdAt, t.updatedAt) " +
+           "FROM Ticket t JOIN t.customer c LEFT JOIN t.assignedAgent a " +
+           "WHERE (:before IS NULL OR t.id < :before) AND " + TICKET_FILTER +
+           "ORDER BY t.id DESC")
+    List<TicketSummary> findSummaryPage(@Param("before") Long before,
+                                        @Param("customerId") Long customerId,
+                                        @Param("agentId") Long agentId,
+                                        @Param("unassigned") boolean unassigned,
+                                        @Param("status") Ticket.TicketStatus status,
+                                        @Param("priority") Ticket.TicketPriority priority,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
 
-    // Find all tickets assigned to an agent with a specific status
-    List<Ticket> findByAssignedAgentIdAndStatus(Long agentId, Ticket.TicketStatus status);
+    // Forward-only stream of export rows matching the optional filters; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.supportdesk.dto.TicketExportRow(t.id, t.title, t.description, t.status, t.priority, " +
+           "c.id, CONCAT(c.firstName, ' ', c.lastName), a.id, CONCAT(a.firstName, ' ', a.lastName), " +
+           "t.createdAt, t.updatedAt) " +
+           "FROM Ticket t JOIN t.customer c LEFT JOIN t.assignedAgent a " +
+           "WHERE " + TICKET_FILTER +
+           "ORDER BY t.id")
+    Stream<TicketExportRow> streamExportRows(@Param("customerId") Long customerId,
+                                             @Param("agentId") Long agentId,
+                                             @Param("unassigned") boolean unassigned,
+                                             @Param("status") Ticket.TicketStatus status,
+                                             @Param("priority") Ticket.TicketPriority priority,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    // Lowest and highest ticket ID, as a single [minId, maxId] row
+    @Query("SELECT MIN(t.id), MAX(t.id) FROM Ticket t")
+    List<Object[]> findIdRange();
+
+    // Fields needed by the search index for tickets with fromId <= id < toId, in ID order, as
+    // [id, title, description, status, priority, customerId, agentId, createdAt] rows
+    @Query("SELECT t.id, t.title, t.description, t.status, t.priority, t.customer.id, a.id, t.createdAt " +
+           "FROM Ticket t LEFT JOIN t.assignedAgent a WHERE t.id >= :fromId AND t.id < :toId ORDER BY t.id")
+    List<Object[]> findSearchRowsInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Every pending SLA deadline, as [id, slaDueAt] rows; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT t.id, t.slaDueAt FROM Ticket t WHERE t.slaDueAt IS NOT NULL")
+    Stream<Object[]> streamSlaDeadlines();
+
+    /**
+     * Write the columns a ticket change may touch, in one statement guarded by the version the change
+     * was read at; returns 0 when another writer got there first. The bulk updates in TicketService
+     * batch the same statement over JDBC.
+     */
+    @Modifying
+    @Query("UPDATE Ticket t SET t.status = :status, t.priority = :priority, t.assignedAgent = :agent, " +
+           "t.slaDueAt = :slaDueAt, t.firstResponseAt = :firstResponseAt, t.updatedAt = :updatedAt, " +
+           "t.version = t.version + 1 WHERE t.id = :id AND t.version = :version")
+    int updateIfVersion(@Param("id") Long id, @Param("version") long version,
+                        @Param("status") Ticket.TicketStatus status, @Param("priority") Ticket.TicketPriority priority,
+                        @Param("agent") User agent, @Param("slaDueAt") LocalDateTime slaDueAt,
+                        @Param("firstResponseAt") LocalDateTime firstResponseAt,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Some tickets with their customer and agent, in one query, in ID order (the order writers lock rows in)
+    @Query("SELECT t FROM Ticket t JOIN FETCH t.customer LEFT JOIN FETCH t.assignedAgent WHERE t.id IN :ids " +
+           "ORDER BY t.id")
+    List<Ticket> findAllWithUsersById(@Param("ids") Collection<Long> ids);
+
+    // Current versions of some tickets, as ID and version pairs
+    @Query("SELECT t.id, t.version FROM Ticket t WHERE t.id IN :ids")
+    List<Object[]> findVersions(@Param("ids") Collection<Long> ids);
+
+    // Last thread position handed out on a ticket; changes whenever its thread does
+    @Query("SELECT t.threadVersion FROM Ticket t WHERE t.id = :ticketId")
+    Optional<Long> findThreadVersion(@Param("ticketId") Long ticketId);
+
+    // Hand out count more thread positions; leaves the ticket row locked until the transaction ends
+    // and, as a bulk update, does not touch the optimistic version
+    @Modifying
+    @Query("UPDATE Ticket t SET t.threadVersion = t.threadVersion + :count WHERE t.id = :ticketId")
+    int advanceThreadVersion(@Param("ticketId") Long ticketId, @Param("count") long count);
+
+    /**
+     * Reserve the next count thread positions of a ticket and return the last of them. Must run in the
+     * transaction that inserts the messages: concurrent writers queue on the row lock, so positions
+     * become visible in increasing order and a reader never skips a message that commits later.
+     */
+    default long reserveThreadPositions(Long ticketId, long count) {
+        if (advanceThreadVersion(ticketId, count) == 0) {
+            throw new RuntimeException("Ticket not found with ID: " + ticketId);
+        }
+        return findThreadVersion(ticketId).orElseThrow();
+    }
 }
@@ -0,0 +1,10 @@
+package com.supportdesk.service;
+
+/**
+ * Thrown when the authenticated caller may not see or act on what the request names
+ */
+public class AccessDeniedException extends RuntimeException {
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
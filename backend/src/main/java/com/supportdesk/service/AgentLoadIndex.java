@@ -0,0 +1,240 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of active agents ordered by their open + in-progress ticket count, and by the same
+ * tickets weighted by priority (supportdesk.routing.priority-weights), so five urgent tickets count
+ * for more than five low ones. Seeded once from an aggregate query and kept up to date by the ticket
+ * and user mutators, so picking the least busy agent is a lookup in a sorted set that never has to
+ * touch the database.
+ */
+@Component
+public class AgentLoadIndex {
+    private static final int COUNT = 0;
+    private static final int WEIGHTED = 1;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Weight per priority, in LOW, MEDIUM, HIGH, URGENT order
+    @Value("${supportdesk.routing.priority-weights:1,2,4,8}")
+    private long[] priorityWeights = {1, 2, 4, 8};
+
+    // Agent ID -> {ticket count, weighted load}, and the same agents as (load, agentId) entries ordered
+    // by count and by weighted load
+    private final NavigableMap<Long, long[]> loads = new TreeMap<>();
+    private final TreeSet<long[]> byLoad = new TreeSet<>(
+            Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+    private final TreeSet<long[]> byWeightedLoad = new TreeSet<>(
+            Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+
+    /**
+     * Seed the index from the active agents and a single GROUP BY over their tickets
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        loads.clear();
+        byLoad.clear();
+        byWeightedLoad.clear();
+
+        for (User agent : userRepository.findByRoleAndActive(User.UserRole.AGENT, true)) {
+            put(agent.getId(), 0L, 0L);
+        }
+
+        for (Object[] row : ticketRepository.countByAgentStatusAndPriority()) {
+            Long agentId = (Long) row[0];
+            if (agentId != null && countsTowardsLoad((Ticket.TicketStatus) row[1])) {
+                adjust(agentId, (Ticket.TicketPriority) row[2], (Long) row[3]);
+            }
+        }
+    }
+
+    /**
+     * Whether a ticket in this status counts towards its agent's load
+     */
+    public static boolean countsTowardsLoad(Ticket.TicketStatus status) {
+        return status == Ticket.TicketStatus.OPEN || status == Ticket.TicketStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Get the ID of the agent with the fewest open tickets other than the given one
+     */
+    public synchronized Optional<Long> leastBusyAgentIdExcept(Long excludedAgentId) {
+        return first(byLoad, excludedAgentId);
+    }
+
+    /**
+     * Pick the agent with the fewest open tickets other than the given one and count a ticket of the
+     * given priority against it in the same step, so concurrent picks spread over the agents instead of
+     * all landing on the one that was least busy before any of them was saved. The caller gives the
+     * reservation back with release once the ticket is saved and counted, or if it could not be saved
+     */
+    public synchronized Optional<Long> pickAndIncrement(Long excludedAgentId, Ticket.TicketPriority priority) {
+        Optional<Long> agentId = first(byLoad, excludedAgentId);
+        agentId.ifPresent(id -> adjust(id, priority, 1));
+        return agentId;
+    }
+
+    /**
+     * As pickAndIncrement, choosing by priority-weighted load instead of ticket count
+     */
+    public synchronized Optional<Long> pickLeastWeightedAndIncrement(Long excludedAgentId,
+                                                                     Ticket.TicketPriority priority) {
+        Optional<Long> agentId = first(byWeightedLoad, excludedAgentId);
+        agentId.ifPresent(id -> adjust(id, priority, 1));
+        return agentId;
+    }
+
+    /**
+     * Count a ticket of the given priority against an agent ahead of saving it, as pickAndIncrement does
+     * for an agent chosen some other way; false (and nothing reserved) if the agent is not tracked
+     */
+    public synchronized boolean reserve(Long agentId, Ticket.TicketPriority priority) {
+        if (!loads.containsKey(agentId)) {
+            return false;
+        }
+        adjust(agentId, priority, 1);
+        return true;
+    }
+
+    /**
+     * Give back a reservation made with the same priority by pickAndIncrement,
+     * pickLeastWeightedAndIncrement or reserve
+     */
+    public synchronized void release(Long agentId, Ticket.TicketPriority priority) {
+        adjust(agentId, priority, -1);
+    }
+
+    /**
+     * Get the IDs of all tracked agents in ascending order
+     */
+    public synchronized List<Long> agentIds() {
+        return new ArrayList<>(loads.keySet());
+    }
+
+    /**
+     * Get the next tracked agent ID after the given one, wrapping around, skipping excludedAgentId
+     */
+    public synchronized Optional<Long> nextAgentIdAfter(Long previousAgentId, Long excludedAgentId) {
+        Long candidate = previousAgentId != null ? loads.higherKey(previousAgentId) : null;
+        for (int i = 0; i < 2 && !loads.isEmpty(); i++) {
+            if (candidate == null) {
+                candidate = loads.firstKey();
+            }
+            if (!candidate.equals(excludedAgentId)) {
+                return Optional.of(candidate);
+            }
+            candidate = loads.higherKey(candidate);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get the current ticket count of an agent (0 if the agent is not tracked)
+     */
+    public synchronized long getLoad(Long agentId) {
+        long[] load = loads.get(agentId);
+        return load != null ? load[COUNT] : 0L;
+    }
+
+    /**
+     * Get the current priority-weighted load of an agent (0 if the agent is not tracked)
+     */
+    public synchronized long getWeightedLoad(Long agentId) {
+        long[] load = loads.get(agentId);
+        return load != null ? load[WEIGHTED] : 0L;
+    }
+
+    /**
+     * Start tracking an agent (on registration or activation) with its open tickets per priority,
+     * indexed by priority ordinal
+     */
+    public synchronized void addAgent(Long agentId, long[] openByPriority) {
+        if (loads.containsKey(agentId)) {
+            return;
+        }
+        long count = 0;
+        long weighted = 0;
+        for (Ticket.TicketPriority priority : Ticket.TicketPriority.values()) {
+            count += openByPriority[priority.ordinal()];
+            weighted += openByPriority[priority.ordinal()] * weightOf(priority);
+        }
+        put(agentId, count, weighted);
+    }
+
+    /**
+     * Stop tracking an agent (on deactivation)
+     */
+    public synchronized void removeAgent(Long agentId) {
+        long[] load = loads.remove(agentId);
+        if (load != null) {
+            byLoad.remove(new long[]{load[COUNT], agentId});
+            byWeightedLoad.remove(new long[]{load[WEIGHTED], agentId});
+        }
+    }
+
+    /**
+     * Apply the load change caused by a ticket moving from one (agent, status, priority) to another
+     */
+    public synchronized void onTicketChanged(Long oldAgentId, Ticket.TicketStatus oldStatus,
+                                             Ticket.TicketPriority oldPriority, Long newAgentId,
+                                             Ticket.TicketStatus newStatus, Ticket.TicketPriority newPriority) {
+        if (oldAgentId != null && countsTowardsLoad(oldStatus)) {
+            adjust(oldAgentId, oldPriority, -1);
+        }
+        if (newAgentId != null && countsTowardsLoad(newStatus)) {
+            adjust(newAgentId, newPriority, 1);
+        }
+    }
+
+    private long weightOf(Ticket.TicketPriority priority) {
+        return priority != null ? priorityWeights[priority.ordinal()] : 0L;
+    }
+
+    // First agent in the given order other than excludedAgentId; at most two steps into the set
+    private static Optional<Long> first(TreeSet<long[]> order, Long excludedAgentId) {
+        for (long[] entry : order) {
+            if (excludedAgentId == null || entry[1] != excludedAgentId) {
+                return Optional.of(entry[1]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Count that many more tickets of a priority (fewer when negative) against a tracked agent
+    private void adjust(Long agentId, Ticket.TicketPriority priority, long tickets) {
+        long[] load = agentId != null ? loads.get(agentId) : null;
+        if (load == null || tickets == 0) {
+            return;
+        }
+        put(agentId, Math.max(0L, load[COUNT] + tickets), Math.max(0L, load[WEIGHTED] + tickets * weightOf(priority)));
+    }
+
+    private void put(Long agentId, long count, long weighted) {
+        long[] previous = loads.put(agentId, new long[]{count, weighted});
+        if (previous != null) {
+            byLoad.remove(new long[]{previous[COUNT], agentId});
+            byWeightedLoad.remove(new long[]{previous[WEIGHTED], agentId});
+        }
+        byLoad.add(new long[]{count, agentId});
+        byWeightedLoad.add(new long[]{weighted, agentId});
+    }
+}
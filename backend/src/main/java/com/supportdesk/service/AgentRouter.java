@@ -0,0 +1,88 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes tickets through the configured RoutingStrategy and keeps decision latency statistics
+ * against the supportdesk.routing.budget-micros budget
+ */
+@Component
+public class AgentRouter {
+    private static final Logger log = LoggerFactory.getLogger(AgentRouter.class);
+
+    @Autowired
+    private Map<String, RoutingStrategy> strategies;
+
+    @Value("${supportdesk.routing.strategy:" + WeightedLoadRouting.NAME + "}")
+    private String strategyName;
+
+    @Value("${supportdesk.routing.budget-micros:1000}")
+    private long budgetMicros;
+
+    private RoutingStrategy strategy;
+
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        strategy = strategies.get(strategyName);
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown routing strategy '" + strategyName
+                    + "', expected one of " + strategies.keySet());
+        }
+    }
+
+    /**
+     * Choose an agent for the ticket, never excludedAgentId (may be null)
+     */
+    public Optional<Long> chooseAgent(Ticket ticket, Long excludedAgentId) {
+        long start = System.nanoTime();
+        Optional<Long> agentId = strategy.chooseAgent(ticket, excludedAgentId);
+        long elapsed = System.nanoTime() - start;
+
+        decisions.increment();
+        totalNanos.add(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        if (elapsed > budgetMicros * 1000) {
+            overBudget.increment();
+            log.warn("Routing decision took {} us, over the {} us budget", elapsed / 1000, budgetMicros);
+        }
+        return agentId;
+    }
+
+    /**
+     * Tell the strategy a ticket was assigned, by routing or by hand
+     */
+    public void onAssigned(Ticket ticket, Long agentId) {
+        strategy.onAssigned(ticket, agentId);
+    }
+
+    /**
+     * Get the active strategy and its decision latency statistics
+     */
+    public Map<String, Object> getStats() {
+        long count = decisions.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strategy", strategyName);
+        stats.put("decisions", count);
+        stats.put("avgMicros", count == 0 ? 0.0 : totalNanos.sum() / 1000.0 / count);
+        stats.put("maxMicros", maxNanos.get() / 1000.0);
+        stats.put("budgetMicros", budgetMicros);
+        stats.put("overBudget", overBudget.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,259 @@
+package com.supportdesk.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supportdesk.dto.ThreadMessage;
+import com.supportdesk.dto.TicketSummary;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.util.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Server-sent event hub for ticket and message changes.
+ * Subscribers listen per ticket or per agent queue; idle streams are parked async
+ * requests, so they hold no servlet thread. Events are built from the entities the
+ * mutators already have in hand and serialized once. Each subscriber has its own bounded
+ * queue, drained in order by a small sender pool; a subscriber whose queue fills up is
+ * disconnected rather than left behind, and its client reconnects and catches up with a
+ * delta read. Internal notes only reach agents.
+ */
+@Service
+public class EventStreamService {
+    private static final Logger log = LoggerFactory.getLogger(EventStreamService.class);
+
+    public static final String MESSAGE_EVENT = "message";
+    public static final String TICKET_EVENT = "ticket";
+
+    // Events sent to one subscriber before its sender thread moves on to others
+    private static final int SEND_BATCH = 32;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Value("${supportdesk.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${supportdesk.events.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${supportdesk.events.sender-threads:4}")
+    private int senderThreads;
+
+    private final Map<Long, Set<Subscriber>> ticketSubscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> agentSubscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread thread = new Thread(r, "event-stream-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribe the caller to messages and changes of one ticket; agents may follow any ticket,
+     * customers only their own
+     */
+    public SseEmitter subscribeToTicket(Long ticketId, AuthenticatedUser caller) {
+        Ticket ticket = ticketCache.findById(ticketId)
+                .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
+        boolean agent = caller.getRole().equals(User.UserRole.AGENT);
+        if (!agent && !ticket.getCustomer().getId().equals(caller.getId())) {
+            throw new AccessDeniedException("Not allowed to follow ticket " + ticketId);
+        }
+        return subscribe(ticketSubscribers, ticketId, agent);
+    }
+
+    /**
+     * Subscribe the caller to changes of every ticket in their own agent queue
+     */
+    public SseEmitter subscribeToAgent(Long agentId, AuthenticatedUser caller) {
+        if (!caller.getRole().equals(User.UserRole.AGENT) || !caller.getId().equals(agentId)) {
+            throw new AccessDeniedException("Not allowed to follow the queue of agent " + agentId);
+        }
+        return subscribe(agentSubscribers, agentId, true);
+    }
+
+    /**
+     * Publish a new message to the ticket's subscribers; notes go to agents only
+     */
+    public void publishMessage(ThreadMessage message) {
+        Predicate<Subscriber> audience = message.getMessageType() == Message.MessageType.NOTE
+                ? Subscriber::isAgent : subscriber -> true;
+        publish(MESSAGE_EVENT, message, ticketSubscribers.get(message.getTicketId()), audience);
+    }
+
+    /**
+     * Publish a ticket change to its subscribers and to the queues of its current and previous agent
+     */
+    public void publishTicket(TicketSummary ticket, Long previousAgentId) {
+        publish(TICKET_EVENT, ticket, ticketSubscribers.get(ticket.getId()), subscriber -> true);
+        if (previousAgentId != null && !previousAgentId.equals(ticket.getAgentId())) {
+            publish(TICKET_EVENT, ticket, agentSubscribers.get(previousAgentId), subscriber -> true);
+        }
+        if (ticket.getAgentId() != null) {
+            publish(TICKET_EVENT, ticket, agentSubscribers.get(ticket.getAgentId()), subscriber -> true);
+        }
+    }
+
+    /**
+     * Number of open event streams
+     */
+    public int getSubscriberCount() {
+        return ticketSubscribers.values().stream().mapToInt(Set::size).sum()
+                + agentSubscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Periodic comment line so proxies keep idle streams open and dead or stuck clients get dropped
+     */
+    @Scheduled(fixedDelayString = "${supportdesk.events.heartbeat-ms:30000}")
+    public void heartbeat() {
+        ticketSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.offer(SseEmitter.event().comment("ping"))));
+        agentSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.offer(SseEmitter.event().comment("ping"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        ticketSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        agentSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<Subscriber>> subscribers, Long key, boolean agent) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), agent);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        Runnable remove = () -> subscribers.computeIfPresent(key, (k, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+        subscriber.emitter.onCompletion(remove);
+        subscriber.emitter.onTimeout(remove);
+        subscriber.emitter.onError(e -> remove.run());
+        return subscriber.emitter;
+    }
+
+    private void publish(String name, Object payload, Set<Subscriber> subscribers, Predicate<Subscriber> audience) {
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            // One line per event keeps the stream compact regardless of the indent-output setting
+            json = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} event", name, e);
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (audience.test(subscriber)) {
+                subscriber.offer(SseEmitter.event().name(name).data(json));
+            }
+        }
+    }
+
+    /**
+     * One open stream with its pending events. At most one sender thread drains it at a time,
+     * which keeps its events in order.
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final boolean agent;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, boolean agent) {
+            this.emitter = emitter;
+            this.agent = agent;
+        }
+
+        boolean isAgent() {
+            return agent;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(event)) {
+                // Too far behind to catch up; the client reconnects and reads what it missed
+                log.debug("Disconnecting an event stream with {} undelivered events", pending.size());
+                close(null);
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Sender pool is shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                for (int sent = 0; sent < SEND_BATCH && !closed && (event = pending.poll()) != null; sent++) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                close(e);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void close(Throwable error) {
+            closed = true;
+            pending.clear();
+            // Completing triggers the removal callback
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+}
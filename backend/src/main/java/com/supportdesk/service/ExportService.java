@@ -0,0 +1,124 @@
+package com.supportdesk.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supportdesk.dto.ThreadMessage;
+import com.supportdesk.dto.TicketExportRow;
+import com.supportdesk.dto.TicketFilter;
+import com.supportdesk.repository.MessageRepository;
+import com.supportdesk.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streaming export of tickets and message threads as CSV or NDJSON.
+ * Rows come from a forward-only cursor as DTO projections and are written as they are read,
+ * so memory use does not grow with the size of the export.
+ */
+@Service
+public class ExportService {
+    public enum Format { CSV, NDJSON }
+
+    // Rows written between flushes of the output
+    public static final int FLUSH_EVERY = 1000;
+
+    private static final List<String> TICKET_HEADER = List.of("id", "title", "description", "status", "priority",
+            "customerId", "customerName", "agentId", "agentName", "createdAt", "updatedAt");
+
+    private static final List<String> MESSAGE_HEADER = List.of("id", "ticketId", "senderId", "senderName",
+            "senderRole", "content", "messageType", "createdAt");
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Write all tickets matching the filter, in ID order; returns the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportTickets(TicketFilter filter, Format format, Writer out) throws IOException {
+        try (Stream<TicketExportRow> rows = ticketRepository.streamExportRows(filter.getCustomerId(),
+                filter.getAgentId(), filter.isUnassigned(), filter.getStatus(), filter.getPriority(),
+                filter.getFrom(), filter.getTo())) {
+            return write(rows, format, TICKET_HEADER, row -> Arrays.asList(row.getId(), row.getTitle(),
+                    row.getDescription(), row.getStatus(), row.getPriority(), row.getCustomerId(),
+                    row.getCustomerName(), row.getAgentId(), row.getAgentName(), row.getCreatedAt(),
+                    row.getUpdatedAt()), out);
+        }
+    }
+
+    /**
+     * Write the messages of one ticket, or of all tickets when ticketId is null, grouped by ticket;
+     * returns the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportMessages(Long ticketId, LocalDateTime from, LocalDateTime to, Format format, Writer out)
+            throws IOException {
+        try (Stream<ThreadMessage> rows = messageRepository.streamThreads(ticketId, from, to)) {
+            return write(rows, format, MESSAGE_HEADER, row -> Arrays.asList(row.getId(), row.getTicketId(),
+                    row.getSenderId(), row.getSenderName(), row.getSenderRole(), row.getContent(),
+                    row.getMessageType(), row.getCreatedAt()), out);
+        }
+    }
+
+    private <T> long write(Stream<T> rows, Format format, List<String> header,
+                           Function<T, List<Object>> columns, Writer out) throws IOException {
+        ObjectWriter json = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        if (format == Format.CSV) {
+            writeCsvLine(out, header);
+        }
+        long count = 0;
+        Iterator<T> it = rows.iterator();
+        while (it.hasNext()) {
+            T row = it.next();
+            if (format == Format.CSV) {
+                writeCsvLine(out, columns.apply(row));
+            } else {
+                // Serialize to a string first so Jackson never closes the shared writer
+                out.write(json.writeValueAsString(row));
+                out.write('\n');
+            }
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer out, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                out.write(csvEscape(value.toString()));
+            }
+        }
+        out.write("\r\n");
+    }
+
+    // RFC 4180 quoting: wrap in quotes when needed and double any embedded quotes
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,392 @@
+package com.supportdesk.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.supportdesk.dto.ImportResult;
+import com.supportdesk.dto.MessageImportRecord;
+import com.supportdesk.dto.TicketImportRecord;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Batched import of historical tickets and messages.
+ * IDs come from pooled sequences, so inserts are grouped into JDBC batches of
+ * hibernate.jdbc.batch_size rows and the persistence context is cleared after each one.
+ */
+@Service
+public class ImportService {
+    public static final int STREAM_CHUNK_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    @Autowired
+    private TicketSearchIndex ticketSearchIndex;
+
+    @Autowired
+    private TicketCounters ticketCounters;
+
+    @Autowired
+    private SlaTimer slaTimer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${supportdesk.import.max-line-chars:1048576}")
+    private int maxLineChars;
+
+    /**
+     * Import tickets in one transaction; invalid records are reported by line and skipped
+     */
+    public ImportResult importTickets(List<TicketImportRecord> records, long firstLine) {
+        return importTickets(records, consecutiveLines(firstLine, records.size()));
+    }
+
+    /**
+     * Import messages into existing tickets in one transaction; invalid records are reported by line and skipped
+     */
+    public ImportResult importMessages(List<MessageImportRecord> records, long firstLine) {
+        return importMessages(records, consecutiveLines(firstLine, records.size()));
+    }
+
+    /**
+     * Stream-import NDJSON tickets, one transaction per chunk; onChunk receives each chunk's result
+     */
+    public ImportResult importTicketsNdjson(InputStream in, Consumer<ImportResult> onChunk) throws IOException {
+        return importNdjson(in, TicketImportRecord.class, this::importTickets, onChunk);
+    }
+
+    /**
+     * Stream-import NDJSON messages, one transaction per chunk; onChunk receives each chunk's result
+     */
+    public ImportResult importMessagesNdjson(InputStream in, Consumer<ImportResult> onChunk) throws IOException {
+        return importNdjson(in, MessageImportRecord.class, this::importMessages, onChunk);
+    }
+
+    /**
+     * Read one line at a time and hand full chunks to the importer. Nothing beyond the current chunk
+     * is buffered, and the next chunk is not read until the previous one has committed, so memory
+     * stays flat and a slow database slows the upload down instead of queueing records. A line longer
+     * than maxLineChars is skipped as it is read and reported as that line's error.
+     */
+    private <T> ImportResult importNdjson(InputStream in, Class<T> type,
+                                          BiFunction<List<T>, List<Long>, ImportResult> importer,
+                                          Consumer<ImportResult> onChunk) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        LineReader lines = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxLineChars);
+
+        ImportResult total = new ImportResult();
+        List<T> records = new ArrayList<>(STREAM_CHUNK_SIZE);
+        List<Long> recordLines = new ArrayList<>(STREAM_CHUNK_SIZE);
+        ImportResult parseErrors = new ImportResult();
+
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (lines.isTooLong()) {
+                parseErrors.addError(lineNumber, "Line longer than " + maxLineChars + " characters");
+            } else if (line.isBlank()) {
+                continue;
+            } else {
+                try {
+                    records.add(reader.readValue(line));
+                    recordLines.add(lineNumber);
+                } catch (JsonProcessingException e) {
+                    parseErrors.addError(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+
+            if (records.size() + parseErrors.getFailed() >= STREAM_CHUNK_SIZE) {
+                flushChunk(records, recordLines, parseErrors, importer, total, onChunk);
+                parseErrors = new ImportResult();
+            }
+        }
+        if (!records.isEmpty() || parseErrors.getFailed() > 0) {
+            flushChunk(records, recordLines, parseErrors, importer, total, onChunk);
+        }
+        return total;
+    }
+
+    private <T> void flushChunk(List<T> records, List<Long> recordLines, ImportResult parseErrors,
+                                BiFunction<List<T>, List<Long>, ImportResult> importer,
+                                ImportResult total, Consumer<ImportResult> onChunk) {
+        ImportResult chunk = records.isEmpty() ? new ImportResult() : importer.apply(records, recordLines);
+        chunk.merge(parseErrors);
+        total.merge(chunk);
+        onChunk.accept(chunk);
+        records.clear();
+        recordLines.clear();
+    }
+
+    private ImportResult importTickets(List<TicketImportRecord> records, List<Long> lines) {
+        ImportResult result = new ImportResult();
+        List<Ticket> tickets = new ArrayList<>(records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                tickets.add(toTicket(records.get(i)));
+            } catch (RuntimeException e) {
+                result.addError(lines.get(i), e.getMessage());
+            }
+        }
+
+        persistAll(tickets);
+        for (Ticket ticket : tickets) {
+            Long agentId = ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : null;
+            agentLoadIndex.onTicketChanged(null, null, null, agentId, ticket.getStatus(), ticket.getPriority());
+            ticketSearchIndex.onTicketSaved(ticket);
+            ticketCounters.onTicketChanged(null, TicketCounters.State.of(ticket));
+            slaTimer.schedule(ticket.getId(), ticket.getSlaDueAt());
+        }
+        result.addImported(tickets.size());
+        return result;
+    }
+
+    private ImportResult importMessages(List<MessageImportRecord> records, List<Long> lines) {
+        ImportResult result = new ImportResult();
+
+        // Check every referenced ticket with a single query instead of one lookup per message
+        Set<Long> ticketIds = new HashSet<>();
+        for (MessageImportRecord record : records) {
+            if (record.getTicketId() != null) {
+                ticketIds.add(record.getTicketId());
+            }
+        }
+        Set<Long> existingTicketIds = ticketIds.isEmpty() ? Set.of() : new HashSet<>(ticketRepository.findExistingIds(ticketIds));
+
+        List<MessageImportRecord> valid = new ArrayList<>(records.size());
+        List<User> senders = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            MessageImportRecord record = records.get(i);
+            try {
+                if (record.getTicketId() == null || !existingTicketIds.contains(record.getTicketId())) {
+                    throw new RuntimeException("Ticket not found with ID: " + record.getTicketId());
+                }
+                if (record.getContent() == null || record.getContent().isBlank()) {
+                    throw new RuntimeException("Message content is required");
+                }
+                senders.add(findUser(record.getSenderId(), "Sender"));
+                valid.add(record);
+            } catch (RuntimeException e) {
+                result.addError(lines.get(i), e.getMessage());
+            }
+        }
+
+        // Thread positions for each ticket's new messages, handed out in file order
+        Map<Long, Integer> perTicket = new TreeMap<>();
+        for (MessageImportRecord record : valid) {
+            perTicket.merge(record.getTicketId(), 1, Integer::sum);
+        }
+        transactionTemplate.executeWithoutResult(tx -> {
+            Map<Long, Long> nextPosition = new HashMap<>();
+            perTicket.forEach((ticketId, count) ->
+                    nextPosition.put(ticketId, ticketRepository.reserveThreadPositions(ticketId, count) - count + 1));
+            for (int i = 0; i < valid.size(); i++) {
+                MessageImportRecord record = valid.get(i);
+                Message message = new Message();
+                message.setThreadSeq(nextPosition.merge(record.getTicketId(), 1L, Long::sum) - 1);
+                message.setTicket(entityManager.getReference(Ticket.class, record.getTicketId()));
+                message.setSender(senders.get(i));
+                message.setContent(record.getContent());
+                message.setMessageType(record.getMessageType() != null ? record.getMessageType() : Message.MessageType.REPLY);
+                if (record.getCreatedAt() != null) {
+                    message.setCreatedAt(record.getCreatedAt());
+                }
+                persist(message, i + 1);
+            }
+        });
+        for (MessageImportRecord record : valid) {
+            // Records without a type were imported as replies
+            if (record.getMessageType() == null || record.getMessageType() == TicketSearchIndex.SEARCHABLE_TYPE) {
+                ticketSearchIndex.addMessage(record.getTicketId(), record.getContent());
+            }
+        }
+        result.addImported(valid.size());
+        return result;
+    }
+
+    private Ticket toTicket(TicketImportRecord record) {
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            throw new RuntimeException("Ticket title is required");
+        }
+        if (record.getDescription() == null) {
+            throw new RuntimeException("Ticket description is required");
+        }
+
+        User customer = findUser(record.getCustomerId(), "Customer");
+        if (!customer.getRole().equals(User.UserRole.CUSTOMER)) {
+            throw new RuntimeException("User " + customer.getId() + " is not a customer");
+        }
+
+        Ticket ticket = new Ticket();
+        ticket.setTitle(record.getTitle());
+        ticket.setDescription(record.getDescription());
+        ticket.setCustomer(customer);
+        ticket.setStatus(record.getStatus() != null ? record.getStatus() : Ticket.TicketStatus.OPEN);
+        ticket.setPriority(record.getPriority() != null ? record.getPriority() : Ticket.TicketPriority.MEDIUM);
+
+        if (record.getAgentId() != null) {
+            User agent = findUser(record.getAgentId(), "Agent");
+            if (!agent.getRole().equals(User.UserRole.AGENT)) {
+                throw new RuntimeException("User " + agent.getId() + " is not an agent");
+            }
+            ticket.setAssignedAgent(agent);
+        }
+
+        LocalDateTime createdAt = record.getCreatedAt() != null ? record.getCreatedAt() : LocalDateTime.now();
+        ticket.setCreatedAt(createdAt);
+        ticket.setUpdatedAt(record.getUpdatedAt() != null ? record.getUpdatedAt() : createdAt);
+        // Counted from the original creation time, so a ticket that is already overdue escalates on the next tick
+        ticket.setSlaDueAt(slaTimer.dueAt(ticket, createdAt));
+        return ticket;
+    }
+
+    private static List<Long> consecutiveLines(long firstLine, int count) {
+        List<Long> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(firstLine + i);
+        }
+        return lines;
+    }
+
+    private User findUser(Long userId, String label) {
+        if (userId == null) {
+            throw new RuntimeException(label + " ID is required");
+        }
+        return userCache.findById(userId)
+                .orElseThrow(() -> new RuntimeException(label + " not found with ID: " + userId));
+    }
+
+    private void persistAll(List<?> entities) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (int i = 0; i < entities.size(); i++) {
+                persist(entities.get(i), i + 1);
+            }
+        });
+    }
+
+    private void persist(Object entity, int count) {
+        entityManager.persist(entity);
+        if (count % batchSize == 0) {
+            // Send the batch and keep the persistence context from growing with the import
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Lines of a reader like BufferedReader.readLine (ended by \n, \r or \r\n), except that a line longer
+     * than maxChars is read to its end and dropped instead of being collected
+     */
+    static final class LineReader {
+        private final Reader in;
+        private final int maxChars;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxChars) {
+            this.in = in;
+            this.maxChars = maxChars;
+        }
+
+        /**
+         * The next line without its terminator, empty if it was too long, or null at the end of the input
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean any = false;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return any ? line.toString() : null;
+                    }
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (buffer[position] == '\n') {
+                        position++;
+                        continue;
+                    }
+                }
+                any = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    skipLineFeed = buffer[position] == '\r';
+                    position++;
+                    return line.toString();
+                }
+            }
+        }
+
+        /**
+         * Whether the line last returned was longer than maxChars
+         */
+        boolean isTooLong() {
+            return tooLong;
+        }
+
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+            if (line.length() + (end - start) > maxChars) {
+                tooLong = true;
+                line.setLength(0);
+                return;
+            }
+            line.append(buffer, start, end - start);
+        }
+    }
+}
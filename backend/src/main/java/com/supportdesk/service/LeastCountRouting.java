@@ -0,0 +1,22 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Optional;
+
+/**
+ * Route to the agent with the fewest open and in-progress tickets, regardless of their priority
+ */
+@Component(LeastCountRouting.NAME)
+public class LeastCountRouting implements RoutingStrategy {
+    public static final String NAME = "least-count";
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    @Override
+    public Optional<Long> chooseAgent(Ticket ticket, Long excludedAgentId) {
+        return agentLoadIndex.pickAndIncrement(excludedAgentId, ticket.getPriority());
+    }
+}
@@ -1,17 +1,22 @@
 package com.supportdesk.service;
 
+import com.supportdesk.dto.ThreadMessage;
 import com.supportdesk.model.Message;
 import com.supportdesk.model.Ticket;
 import com.supportdesk.model.User;
 import com.supportdesk.repository.MessageRepository;
 import com.supportdesk.repository.TicketRepository;
-import com.supportdesk.repository.UserRepository;
+import com.supportdesk.util.AuthenticatedUser;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "supportdesk.service", histogram = true)
 public class MessageService {
     @Autowired
     private MessageRepository messageRepository;
@@ -20,17 +25,31 @@ public class MessageService {
     private TicketRepository ticketRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private TicketCache ticketCache;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TicketSearchIndex ticketSearchIndex;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     /**
      * Add a reply message to a ticket
      */
     public Message addReply(Long ticketId, Long senderId, String content) {
-        Ticket ticket = ticketRepository.findById(ticketId)
+        Ticket ticket = ticketCache.findById(ticketId)
                 .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
 
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + senderId));
+        User sender = getSender(senderId);
 
         Message message = new Message();
         message.setTicket(ticket);
@@ -38,18 +57,23 @@ public class MessageService {
         message.setContent(content);
         message.setMessageType(Message.MessageType.REPLY);
 
-        return messageRepository.save(message);
+        Message saved = append(message);
+        if (sender.getRole().equals(User.UserRole.AGENT) && ticket.getFirstResponseAt() == null) {
+            ticketService.recordFirstResponse(ticketId, saved.getCreatedAt());
+        }
+        ticketSearchIndex.addMessage(ticketId, content);
+        eventStreamService.publishMessage(ThreadMessage.of(saved));
+        return saved;
     }
 
     /**
      * Add an internal note (only visible to agents)
      */
     public Message addNote(Long ticketId, Long senderId, String content) {
-        Ticket ticket = ticketRepository.findById(ticketId)
+        Ticket ticket = ticketCache.findById(ticketId)
                 .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
 
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + senderId));
+        User sender = getSender(senderId);
 
         if (!sender.getRole().equals(User.UserRole.AGENT)) {
             throw new RuntimeException("Only agents can add internal notes");
@@ -61,19 +85,67 @@ public class MessageService {
         message.setContent(content);
         message.setMessageType(Message.MessageType.NOTE);
 
-        return messageRepository.save(message);
+        Message saved = append(message);
+        eventStreamService.publishMessage(ThreadMessage.of(saved));
+        return saved;
+    }
+
+    /**
+     * Insert a message at the next position of its ticket's thread
+     */
+    private Message append(Message message) {
+        return transactionTemplate.execute(tx -> {
+            message.setThreadSeq(ticketRepository.reserveThreadPositions(message.getTicket().getId(), 1));
+            return messageRepository.save(message);
+        });
+    }
+
+    /**
+     * Load the sender: the request's authenticated caller when there is one, who may not post as
+     * anybody else, otherwise the given user
+     */
+    private User getSender(Long senderId) {
+        Optional<AuthenticatedUser> caller = AuthenticatedUser.current();
+        if (caller.isPresent() && senderId != null && !senderId.equals(caller.get().getId())) {
+            throw new AccessDeniedException("Sender ID " + senderId + " is not the authenticated user");
+        }
+        Long id = caller.map(AuthenticatedUser::getId).orElse(senderId);
+        if (id == null) {
+            throw new RuntimeException("Sender ID is required");
+        }
+        return userCache.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
     }
 
     /**
-     * Get all messages for a ticket
+     * Get all messages for a ticket, oldest first
      */
-    public List<Message> getTicketMessages(Long ticketId) {
-        return messageRepository.findByTicketId(ticketId);
+    @Transactional(readOnly = true)
+    public List<ThreadMessage> getTicketMessages(Long ticketId) {
+        return messageRepository.findThreadByTicketId(ticketId);
+    }
+
+    /**
+     * Get only the messages of a ticket past the given thread position (a message's threadSeq)
+     */
+    @Transactional(readOnly = true)
+    public List<ThreadMessage> getTicketMessagesSince(Long ticketId, Long since) {
+        return messageRepository.findThreadByTicketIdSince(ticketId, since);
+    }
+
+    /**
+     * Get a version for a ticket thread that changes whenever a message is added or deleted
+     */
+    @Transactional(readOnly = true)
+    public long getThreadVersion(Long ticketId) {
+        return ticketRepository.findThreadVersion(ticketId)
+                .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
     }
 
     /**
      * Get all messages sent by a user
      */
+    @Transactional(readOnly = true)
     public List<Message> getUserMessages(Long userId) {
         return messageRepository.findBySenderId(userId);
     }
@@ -81,6 +153,7 @@ public class MessageService {
     /**
      * Get message by ID
      */
+    @Transactional(readOnly = true)
     public Optional<Message> getMessageById(Long messageId) {
         return messageRepository.findById(messageId);
     }
@@ -96,14 +169,19 @@ public class MessageService {
             throw new RuntimeException("Only notes can be deleted");
         }
 
-        messageRepository.deleteById(messageId);
+        transactionTemplate.executeWithoutResult(tx -> {
+            // By ID, without loading the message a second time
+            messageRepository.deleteAllByIdInBatch(List.of(messageId));
+            // Burn a position so the thread version moves on
+            ticketRepository.advanceThreadVersion(message.getTicket().getId(), 1);
+        });
     }
 
     /**
      * Create a status update message
      */
     public Message createStatusUpdateMessage(Long ticketId, String statusMessage) {
-        Ticket ticket = ticketRepository.findById(ticketId)
+        Ticket ticket = ticketCache.findById(ticketId)
                 .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
 
         // Get system user or admin user for status updates
@@ -116,6 +194,8 @@ public class MessageService {
         message.setContent(statusMessage);
         message.setMessageType(Message.MessageType.STATUS_UPDATE);
 
-        return messageRepository.save(message);
+        Message saved = append(message);
+        eventStreamService.publishMessage(ThreadMessage.of(saved));
+        return saved;
     }
 }
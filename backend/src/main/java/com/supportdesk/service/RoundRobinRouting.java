@@ -0,0 +1,27 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Optional;
+
+/**
+ * Route to the active agents in turn, in agent ID order
+ */
+@Component(RoundRobinRouting.NAME)
+public class RoundRobinRouting implements RoutingStrategy {
+    public static final String NAME = "round-robin";
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    private Long lastAgentId;
+
+    @Override
+    public synchronized Optional<Long> chooseAgent(Ticket ticket, Long excludedAgentId) {
+        Optional<Long> agentId = agentLoadIndex.nextAgentIdAfter(lastAgentId, excludedAgentId)
+                .filter(id -> agentLoadIndex.reserve(id, ticket.getPriority()));
+        agentId.ifPresent(id -> lastAgentId = id);
+        return agentId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import java.util.Optional;
+
+/**
+ * Picks the agent a ticket is routed to, using only in-memory agent state.
+ * Implementations are Spring beans selected by name through supportdesk.routing.strategy.
+ */
+public interface RoutingStrategy {
+    /**
+     * Choose an agent among those tracked by AgentLoadIndex, never excludedAgentId (may be null), and
+     * reserve it there so the ticket counts towards the agent's load before it is saved; the caller
+     * releases the reservation through AgentLoadIndex.release
+     */
+    Optional<Long> chooseAgent(Ticket ticket, Long excludedAgentId);
+
+    /**
+     * Learn from a ticket being assigned to an agent, whichever way it was assigned
+     */
+    default void onAssigned(Ticket ticket, Long agentId) {
+    }
+}
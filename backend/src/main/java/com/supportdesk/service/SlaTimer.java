@@ -0,0 +1,101 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.util.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * SLA policy and the timer wheel holding each active ticket's next deadline.
+ * The deadline itself is stored on the ticket (slaDueAt); the wheel only decides when to look at it,
+ * so it is restored from a single query at startup and never needs a table scan while running.
+ */
+@Component
+public class SlaTimer {
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${supportdesk.sla.tick-ms:1000}")
+    private long tickMillis;
+
+    // Minutes per priority, in LOW, MEDIUM, HIGH, URGENT order
+    @Value("${supportdesk.sla.response-minutes:1440,480,120,30}")
+    private long[] responseMinutes;
+
+    @Value("${supportdesk.sla.resolution-minutes:4320,1440,480,240}")
+    private long[] resolutionMinutes;
+
+    private TimerWheel<Long> wheel;
+
+    /**
+     * Load every pending deadline into a fresh wheel
+     */
+    @PostConstruct
+    public synchronized void restore() {
+        wheel = new TimerWheel<>(tickMillis, System.currentTimeMillis());
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<Object[]> rows = ticketRepository.streamSlaDeadlines()) {
+                rows.forEach(row -> wheel.schedule((Long) row[0], toMillis((LocalDateTime) row[1])));
+            }
+        });
+    }
+
+    /**
+     * Whether a ticket in this status is still subject to SLA deadlines
+     */
+    public static boolean isActive(Ticket.TicketStatus status) {
+        return status != Ticket.TicketStatus.RESOLVED && status != Ticket.TicketStatus.CLOSED;
+    }
+
+    /**
+     * Next deadline for a ticket counted from the given time: the response target until an agent
+     * has replied, the resolution target after that, and none once the ticket is resolved or closed
+     */
+    public LocalDateTime dueAt(Ticket ticket, LocalDateTime from) {
+        if (!isActive(ticket.getStatus())) {
+            return null;
+        }
+        long[] targets = ticket.getFirstResponseAt() == null ? responseMinutes : resolutionMinutes;
+        return from.plusMinutes(targets[ticket.getPriority().ordinal()]);
+    }
+
+    /**
+     * Schedule a ticket's deadline, or cancel it when dueAt is null
+     */
+    public synchronized void schedule(Long ticketId, LocalDateTime dueAt) {
+        if (dueAt == null) {
+            wheel.cancel(ticketId);
+        } else {
+            wheel.schedule(ticketId, toMillis(dueAt));
+        }
+    }
+
+    /**
+     * Advance the wheel to now and return the IDs of tickets whose deadline has passed
+     */
+    public synchronized List<Long> pollDue() {
+        return wheel.advance(System.currentTimeMillis());
+    }
+
+    /**
+     * Number of pending deadlines
+     */
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,53 @@
+package com.supportdesk.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.supportdesk.model.Ticket;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Optional;
+
+/**
+ * Route a customer's tickets to the agent who last handled that customer while that agent is active,
+ * falling back to the weighted-load strategy for new customers
+ */
+@Component(StickyCustomerRouting.NAME)
+public class StickyCustomerRouting implements RoutingStrategy {
+    public static final String NAME = "sticky-customer";
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    @Autowired
+    private WeightedLoadRouting fallback;
+
+    @Value("${supportdesk.routing.sticky-max-customers:100000}")
+    private long maxCustomers;
+
+    // Customer ID -> agent ID of their latest assignment
+    private Cache<Long, Long> lastAgentByCustomer;
+
+    @PostConstruct
+    public void init() {
+        lastAgentByCustomer = Caffeine.newBuilder().maximumSize(maxCustomers).build();
+    }
+
+    @Override
+    public Optional<Long> chooseAgent(Ticket ticket, Long excludedAgentId) {
+        Long customerId = ticket.getCustomer() != null ? ticket.getCustomer().getId() : null;
+        Long previous = customerId != null ? lastAgentByCustomer.getIfPresent(customerId) : null;
+        if (previous != null && !previous.equals(excludedAgentId) && agentLoadIndex.reserve(previous, ticket.getPriority())) {
+            return Optional.of(previous);
+        }
+        return fallback.chooseAgent(ticket, excludedAgentId);
+    }
+
+    @Override
+    public void onAssigned(Ticket ticket, Long agentId) {
+        if (ticket.getCustomer() != null && agentId != null) {
+            lastAgentByCustomer.put(ticket.getCustomer().getId(), agentId);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.supportdesk.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of tickets by ID, bounded by an estimate of the heap its entries take and
+ * evicted by Caffeine's W-TinyLFU policy. An entry holds the ticket's columns and the IDs of its
+ * customer and agent; the users are taken from UserCache on every read, so profile changes reach
+ * cached tickets without invalidating them. An entry whose users UserCache no longer finds is
+ * dropped and the ticket read again. TicketService writes every committed change through, and an
+ * older version never replaces a newer one. Each read returns a fresh copy without messages.
+ */
+@Component
+public class TicketCache implements MeterBinder {
+    // Object headers, boxed IDs, enum references and timestamps of one entry
+    private static final int FIXED_BYTES = 512;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Value("${supportdesk.ticket-cache.max-mb:64}")
+    private long maxMegabytes;
+
+    @Value("${supportdesk.ticket-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<Long, Entry> byId;
+
+    @PostConstruct
+    public void init() {
+        byId = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((Long id, Entry entry) -> entry.weight)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a ticket by ID, loading it on a miss; unknown IDs are not cached
+     */
+    public Optional<Ticket> findById(Long ticketId) {
+        Entry entry = byId.get(ticketId, id -> ticketRepository.findById(id).map(Entry::new).orElse(null));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Ticket ticket = toTicket(entry);
+        if (ticket != null) {
+            return Optional.of(ticket);
+        }
+        // A user of the entry is gone, so the ticket was changed or deleted elsewhere
+        byId.asMap().remove(ticketId, entry);
+        return refresh(ticketId);
+    }
+
+    /**
+     * Store a ticket's committed state, unless a newer version is already cached
+     */
+    public void put(Ticket ticket) {
+        byId.asMap().merge(ticket.getId(), new Entry(ticket),
+                (cached, fresh) -> fresh.version >= cached.version ? fresh : cached);
+    }
+
+    /**
+     * Read a ticket from the database again, store it and return a copy. Called inside a writing
+     * transaction, so the row comes from the primary
+     */
+    public Optional<Ticket> refresh(Long ticketId) {
+        return ticketRepository.findById(ticketId).map(this::storeAndCopy);
+    }
+
+    /**
+     * Read some tickets from the database again with one IN query, customers and agents joined in,
+     * store them and return copies in ID order; unknown IDs are left out
+     */
+    public List<Ticket> refreshAll(Collection<Long> ticketIds) {
+        List<Ticket> tickets = new ArrayList<>(ticketIds.size());
+        for (Ticket ticket : ticketRepository.findAllWithUsersById(ticketIds)) {
+            tickets.add(storeAndCopy(ticket));
+        }
+        return tickets;
+    }
+
+    private Ticket storeAndCopy(Ticket ticket) {
+        put(ticket);
+        return toTicket(new Entry(ticket), ticket.getCustomer(), ticket.getAssignedAgent());
+    }
+
+    /**
+     * Drop a ticket so the next read loads it again
+     */
+    public void invalidate(Long ticketId) {
+        byId.invalidate(ticketId);
+    }
+
+    /**
+     * Publish the cache as tickets.byId, with its estimated heap use as a gauge
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "tickets.byId");
+        registry.gauge("supportdesk.ticket.cache.weight", this, cache -> cache.weightedSize());
+    }
+
+    /**
+     * Hit/miss counters and the estimated heap taken by the cached tickets
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = byId.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", byId.estimatedSize());
+        result.put("weightBytes", weightedSize());
+        result.put("maxWeightBytes", maxMegabytes * 1024 * 1024);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private long weightedSize() {
+        return byId.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    // The entry with its users from UserCache, or null if one of them is not found
+    private Ticket toTicket(Entry entry) {
+        User customer = userCache.findById(entry.customerId).orElse(null);
+        User agent = entry.agentId != null ? userCache.findById(entry.agentId).orElse(null) : null;
+        if (customer == null || entry.agentId != null && agent == null) {
+            return null;
+        }
+        return toTicket(entry, customer, agent);
+    }
+
+    private static Ticket toTicket(Entry entry, User customer, User agent) {
+        Ticket ticket = new Ticket();
+        ticket.setId(entry.id);
+        ticket.setTitle(entry.title);
+        ticket.setDescription(entry.description);
+        ticket.setStatus(entry.status);
+        ticket.setPriority(entry.priority);
+        ticket.setCustomer(customer);
+        ticket.setAssignedAgent(agent);
+        ticket.setCreatedAt(entry.createdAt);
+        ticket.setUpdatedAt(entry.updatedAt);
+        ticket.setFirstResponseAt(entry.firstResponseAt);
+        ticket.setSlaDueAt(entry.slaDueAt);
+        ticket.setVersion(entry.version);
+        return ticket;
+    }
+
+    // A ticket's columns as of one version
+    private static final class Entry {
+        final Long id;
+        final String title;
+        final String description;
+        final Ticket.TicketStatus status;
+        final Ticket.TicketPriority priority;
+        final Long customerId;
+        final Long agentId;
+        final LocalDateTime createdAt;
+        final LocalDateTime updatedAt;
+        final LocalDateTime firstResponseAt;
+        final LocalDateTime slaDueAt;
+        final long version;
+        final int weight;
+
+        Entry(Ticket ticket) {
+            id = ticket.getId();
+            title = ticket.getTitle();
+            description = ticket.getDescription();
+            status = ticket.getStatus();
+            priority = ticket.getPriority();
+            customerId = ticket.getCustomer().getId();
+            agentId = ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : null;
+            createdAt = ticket.getCreatedAt();
+            updatedAt = ticket.getUpdatedAt();
+            firstResponseAt = ticket.getFirstResponseAt();
+            slaDueAt = ticket.getSlaDueAt();
+            version = ticket.getVersion();
+            // Two bytes per character, the size of strings that are not pure Latin-1
+            weight = FIXED_BYTES + 2 * (length(title) + length(description));
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+
+/**
+ * Thrown when a ticket update keeps losing to concurrent writers after every retry.
+ * Carries the ticket as it is now (null if it was deleted meanwhile) so the caller can show it and try again.
+ */
+public class TicketConflictException extends RuntimeException {
+    private final transient Ticket current;
+
+    public TicketConflictException(String message, Ticket current) {
+        super(message);
+        this.current = current;
+    }
+
+    public Ticket getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,292 @@
+package com.supportdesk.service;
+
+import com.supportdesk.dto.TicketStats;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ticket counts per (agent, status, priority) and per (customer, status) for the dashboards.
+ * Kept up to date by the ticket mutators and periodically replaced by a fresh GROUP BY, which also
+ * corrects any drift from changes made outside this application. Changes counted while the GROUP BY
+ * runs are also recorded and replayed onto its result before the swap, so none is lost; one committed
+ * in the moment between the recording starting and the queries taking their snapshot is counted twice
+ * until the next reconcile.
+ */
+@Component
+public class TicketCounters {
+    private static final Ticket.TicketStatus[] STATUSES = Ticket.TicketStatus.values();
+    private static final Ticket.TicketPriority[] PRIORITIES = Ticket.TicketPriority.values();
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private volatile Counts counts = new Counts();
+
+    // Mutators hold the read lock while they count, reconcile the write lock to start recording and to swap
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Changes counted since the running reconcile started, or null; guarded by lock
+    private Counts recorded;
+
+    /**
+     * The fields of a ticket that its counts depend on, captured before and after a change
+     */
+    public static final class State {
+        private final Long agentId;
+        private final Long customerId;
+        private final Ticket.TicketStatus status;
+        private final Ticket.TicketPriority priority;
+
+        private State(Long agentId, Long customerId, Ticket.TicketStatus status, Ticket.TicketPriority priority) {
+            this.agentId = agentId;
+            this.customerId = customerId;
+            this.status = status;
+            this.priority = priority;
+        }
+
+        public Long getAgentId() {
+            return agentId;
+        }
+
+        public Ticket.TicketStatus getStatus() {
+            return status;
+        }
+
+        public Ticket.TicketPriority getPriority() {
+            return priority;
+        }
+
+        public static State of(Ticket ticket) {
+            return new State(ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : null,
+                    ticket.getCustomer() != null ? ticket.getCustomer().getId() : null,
+                    ticket.getStatus(), ticket.getPriority());
+        }
+    }
+
+    /**
+     * Replace all counts with the result of two GROUP BY queries, read from one snapshot, plus the
+     * changes counted while they ran
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${supportdesk.dashboard.reconcile-ms:300000}",
+               initialDelayString = "${supportdesk.dashboard.reconcile-ms:300000}")
+    public void reconcile() {
+        Counts changes = new Counts();
+        lock.writeLock().lock();
+        try {
+            recorded = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Counts fresh = null;
+        try {
+            fresh = snapshot().execute(tx -> count());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    fresh.addAll(changes);
+                    counts = fresh;
+                }
+                recorded = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Move a ticket's counts from its old state to its new one; before is null for a new ticket
+     */
+    public void onTicketChanged(State before, State after) {
+        lock.readLock().lock();
+        try {
+            move(counts, before, after);
+            if (recorded != null) {
+                move(recorded, before, after);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts of the tickets assigned to an agent, by status and priority
+     */
+    public TicketStats getAgentStats(Long agentId) {
+        return toStats(counts.byAgent.get(agentId));
+    }
+
+    /**
+     * An agent's open and in-progress tickets per priority, indexed by priority ordinal
+     */
+    public long[] getOpenByPriority(Long agentId) {
+        long[] open = new long[PRIORITIES.length];
+        LongAdder[] cells = counts.byAgent.get(agentId);
+        if (cells == null) {
+            return open;
+        }
+        for (Ticket.TicketStatus status : STATUSES) {
+            if (!AgentLoadIndex.countsTowardsLoad(status)) {
+                continue;
+            }
+            for (Ticket.TicketPriority priority : PRIORITIES) {
+                open[priority.ordinal()] += cells[cell(status, priority)].sum();
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Counts of a customer's tickets by status
+     */
+    public TicketStats getCustomerStats(Long customerId) {
+        LongAdder[] cells = counts.byCustomer.get(customerId);
+        TicketStats stats = new TicketStats();
+        for (Ticket.TicketStatus status : STATUSES) {
+            long value = cells != null ? cells[status.ordinal()].sum() : 0;
+            stats.getByStatus().put(status, value);
+            stats.setTotal(stats.getTotal() + value);
+        }
+        return stats;
+    }
+
+    /**
+     * Counts of all tickets by status and priority, plus the number of unassigned tickets
+     */
+    public TicketStats getOverallStats() {
+        Counts current = counts;
+        TicketStats stats = toStats(current.all);
+        long unassigned = 0;
+        for (LongAdder cell : current.unassigned) {
+            unassigned += cell.sum();
+        }
+        stats.setUnassigned(unassigned);
+        return stats;
+    }
+
+    private static TicketStats toStats(LongAdder[] cells) {
+        TicketStats stats = new TicketStats();
+        Map<Ticket.TicketPriority, Long> byPriority = new EnumMap<>(Ticket.TicketPriority.class);
+        Map<Ticket.TicketStatus, Map<Ticket.TicketPriority, Long>> byStatusAndPriority =
+                new EnumMap<>(Ticket.TicketStatus.class);
+
+        for (Ticket.TicketStatus status : STATUSES) {
+            Map<Ticket.TicketPriority, Long> row = new EnumMap<>(Ticket.TicketPriority.class);
+            long statusTotal = 0;
+            for (Ticket.TicketPriority priority : PRIORITIES) {
+                long value = cells != null ? cells[cell(status, priority)].sum() : 0;
+                row.put(priority, value);
+                byPriority.merge(priority, value, Long::sum);
+                statusTotal += value;
+            }
+            byStatusAndPriority.put(status, row);
+            stats.getByStatus().put(status, statusTotal);
+            stats.setTotal(stats.getTotal() + statusTotal);
+        }
+        stats.setByPriority(byPriority);
+        stats.setByStatusAndPriority(byStatusAndPriority);
+        return stats;
+    }
+
+    // A read-only transaction that sees one snapshot; undeclared, so it reads from the primary
+    private TransactionTemplate snapshot() {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return snapshot;
+    }
+
+    private Counts count() {
+        Counts fresh = new Counts();
+        for (Object[] row : ticketRepository.countByAgentStatusAndPriority()) {
+            Long agentId = (Long) row[0];
+            int cell = cell((Ticket.TicketStatus) row[1], (Ticket.TicketPriority) row[2]);
+            long count = (Long) row[3];
+            fresh.all[cell].add(count);
+            (agentId == null ? fresh.unassigned : fresh.agent(agentId))[cell].add(count);
+        }
+        for (Object[] row : ticketRepository.countByCustomerAndStatus()) {
+            fresh.customer((Long) row[0])[((Ticket.TicketStatus) row[1]).ordinal()].add((Long) row[2]);
+        }
+        return fresh;
+    }
+
+    private static void move(Counts current, State before, State after) {
+        if (before != null) {
+            add(current, before, -1);
+        }
+        if (after != null) {
+            add(current, after, 1);
+        }
+    }
+
+    private static void add(Counts current, State state, long delta) {
+        if (state.status == null || state.priority == null) {
+            return;
+        }
+        int cell = cell(state.status, state.priority);
+        current.all[cell].add(delta);
+        (state.agentId == null ? current.unassigned : current.agent(state.agentId))[cell].add(delta);
+        if (state.customerId != null) {
+            current.customer(state.customerId)[state.status.ordinal()].add(delta);
+        }
+    }
+
+    private static int cell(Ticket.TicketStatus status, Ticket.TicketPriority priority) {
+        return status.ordinal() * PRIORITIES.length + priority.ordinal();
+    }
+
+    private static void addCells(LongAdder[] cells, LongAdder[] changes) {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i].add(changes[i].sum());
+        }
+    }
+
+    private static LongAdder[] newCells(int size) {
+        LongAdder[] cells = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            cells[i] = new LongAdder();
+        }
+        return cells;
+    }
+
+    // One generation of counters; reconcile builds a new one and swaps it in
+    private static class Counts {
+        final LongAdder[] all = newCells(STATUSES.length * PRIORITIES.length);
+        final LongAdder[] unassigned = newCells(STATUSES.length * PRIORITIES.length);
+        final Map<Long, LongAdder[]> byAgent = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder[]> byCustomer = new ConcurrentHashMap<>();
+
+        LongAdder[] agent(Long agentId) {
+            return byAgent.computeIfAbsent(agentId, id -> newCells(STATUSES.length * PRIORITIES.length));
+        }
+
+        LongAdder[] customer(Long customerId) {
+            return byCustomer.computeIfAbsent(customerId, id -> newCells(STATUSES.length));
+        }
+
+        void addAll(Counts changes) {
+            addCells(all, changes.all);
+            addCells(unassigned, changes.unassigned);
+            changes.byAgent.forEach((agentId, cells) -> addCells(agent(agentId), cells));
+            changes.byCustomer.forEach((customerId, cells) -> addCells(customer(customerId), cells));
+        }
+    }
+}
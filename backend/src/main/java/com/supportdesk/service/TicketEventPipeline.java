@@ -0,0 +1,337 @@
+package com.supportdesk.service;
+
+import com.supportdesk.dto.ThreadMessage;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.OutboxEvent;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.OutboxEventRepository;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.util.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records STATUS_UPDATE and ASSIGNMENT history for ticket changes without slowing the changes down.
+ * Mutators write a small outbox row inside their own transaction; after commit its ID goes onto a
+ * bounded in-process queue, and a single consumer thread turns batches of rows into Message inserts
+ * and deletes them in one transaction. Rows whose ID never reached the queue (full queue, restart)
+ * are picked up by a periodic sweep, so every change is recorded at least once. A batch that fails
+ * is retried row by row, so one bad row cannot hold back the others; a row that keeps failing, or
+ * whose sender no longer exists, stays in the outbox as a dead letter with its error.
+ */
+@Component
+public class TicketEventPipeline {
+    private static final Logger log = LoggerFactory.getLogger(TicketEventPipeline.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${supportdesk.history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${supportdesk.history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${supportdesk.history.sweep-ms:30000}")
+    private long sweepMillis;
+
+    @Value("${supportdesk.history.max-attempts:5}")
+    private int maxAttempts;
+
+    private BlockingQueue<Long> queue;
+    private ExecutorService consumer;
+    private volatile boolean running;
+    private volatile boolean overflowed;
+    private Counter deadLetters;
+
+    @PostConstruct
+    public void start() {
+        deadLetters = Counter.builder("supportdesk.history.dead.letters")
+                .description("Ticket history events given up on and kept in the outbox")
+                .register(meterRegistry);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        consumer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ticket-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        consumer.execute(this::consume);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumer.shutdownNow();
+        consumer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Record history entries for the differences between a ticket's state before a change and now;
+     * must be called inside the transaction that saves the ticket (before is null for a new ticket)
+     */
+    public void recordChanges(TicketCounters.State before, Ticket after, Long actorId, String reason) {
+        String suffix = reason != null ? " (" + reason + ")" : "";
+        Long oldAgentId = before != null ? before.getAgentId() : null;
+        Long newAgentId = after.getAssignedAgent() != null ? after.getAssignedAgent().getId() : null;
+
+        if (before != null && before.getStatus() != after.getStatus()) {
+            record(after, actorId, Message.MessageType.STATUS_UPDATE,
+                    "Status changed from " + before.getStatus() + " to " + after.getStatus() + suffix);
+        }
+        if (before != null && before.getPriority() != after.getPriority()) {
+            record(after, actorId, Message.MessageType.STATUS_UPDATE,
+                    "Priority changed from " + before.getPriority() + " to " + after.getPriority() + suffix);
+        }
+        if (!Objects.equals(oldAgentId, newAgentId)) {
+            String content = newAgentId != null
+                    ? "Assigned to " + after.getAssignedAgent().getFirstName() + " " + after.getAssignedAgent().getLastName()
+                    : "Unassigned";
+            record(after, actorId, Message.MessageType.ASSIGNMENT, content + suffix);
+        }
+    }
+
+    private void record(Ticket ticket, Long actorId, Message.MessageType type, String content) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTicketId(ticket.getId());
+        event.setSenderId(senderIdFor(ticket, actorId));
+        event.setMessageType(type);
+        event.setContent(content);
+        entityManager.persist(event);
+
+        Long eventId = event.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!queue.offer(eventId)) {
+                    // Left in the outbox for the next sweep
+                    overflowed = true;
+                }
+            }
+        });
+    }
+
+    // The acting user, else the request's caller, else the ticket's agent, else its customer
+    private static Long senderIdFor(Ticket ticket, Long actorId) {
+        if (actorId != null) {
+            return actorId;
+        }
+        Optional<AuthenticatedUser> caller = AuthenticatedUser.current();
+        if (caller.isPresent()) {
+            return caller.get().getId();
+        }
+        return ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : ticket.getCustomer().getId();
+    }
+
+    /**
+     * Number of event IDs waiting in the in-process queue
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void consume() {
+        long nextSweep = 0;
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (overflowed || System.currentTimeMillis() >= nextSweep) {
+                    overflowed = false;
+                    sweep();
+                    nextSweep = System.currentTimeMillis() + sweepMillis;
+                }
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The rows stay in the outbox and are retried by the next sweep
+                log.warn("Could not write {} ticket history entries", batch.size(), e);
+                nextSweep = System.currentTimeMillis() + sweepMillis;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Walk the pending rows of the outbox table page by page, oldest first; rows that fail again
+    // are left behind for the next sweep
+    private void sweep() {
+        List<Long> ids;
+        long afterId = 0;
+        do {
+            ids = outboxEventRepository.findPendingIds(afterId, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                process(ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize && running);
+    }
+
+    /**
+     * Write the given outbox rows in one transaction, or row by row if that fails
+     */
+    void process(List<Long> eventIds) {
+        try {
+            publish(write(eventIds));
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} ticket history entries together, writing them one by one", eventIds.size(), e);
+            for (Long eventId : eventIds) {
+                try {
+                    publish(write(List.of(eventId)));
+                } catch (RuntimeException rowFailure) {
+                    recordFailure(eventId, rowFailure);
+                }
+            }
+        }
+    }
+
+    /**
+     * Turn the given outbox rows into Message rows and delete them in one transaction; rows already
+     * processed (by an earlier batch or sweep) or dead-lettered are skipped, and rows whose sender
+     * no longer exists are dead-lettered
+     */
+    private List<Message> write(List<Long> eventIds) {
+        return transactionTemplate.execute(tx -> {
+            List<OutboxEvent> events = outboxEventRepository.findAllById(eventIds);
+            List<OutboxEvent> written = new ArrayList<>(events.size());
+            List<Message> messages = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                if (event.getFailedAt() != null) {
+                    continue;
+                }
+                Optional<User> sender = userCache.findById(event.getSenderId());
+                if (sender.isEmpty()) {
+                    giveUp(event, "Sender not found with ID: " + event.getSenderId());
+                    continue;
+                }
+                Message message = new Message();
+                message.setTicket(entityManager.getReference(Ticket.class, event.getTicketId()));
+                message.setSender(sender.get());
+                message.setContent(event.getContent());
+                message.setMessageType(event.getMessageType());
+                message.setCreatedAt(event.getCreatedAt());
+                messages.add(message);
+                written.add(event);
+            }
+            assignThreadPositions(messages);
+            messages.forEach(entityManager::persist);
+            outboxEventRepository.deleteAllInBatch(written);
+            return messages;
+        });
+    }
+
+    private void publish(List<Message> saved) {
+        for (Message message : saved) {
+            eventStreamService.publishMessage(ThreadMessage.of(message));
+        }
+    }
+
+    // Count a failed try of one row in its own transaction, dead-lettering it after maxAttempts
+    private void recordFailure(Long eventId, RuntimeException failure) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> outboxEventRepository.findById(eventId).ifPresent(event -> {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(errorText(failure));
+                if (event.getAttempts() >= maxAttempts) {
+                    giveUp(event, event.getLastError());
+                } else {
+                    log.warn("Ticket history event {} for ticket {} failed (attempt {} of {}): {}", eventId,
+                            event.getTicketId(), event.getAttempts(), maxAttempts, event.getLastError());
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Left as it was; the next sweep tries it again
+            log.warn("Could not record the failure of ticket history event {}", eventId, e);
+        }
+    }
+
+    // Keep the row as a dead letter; must be called inside a transaction that has it loaded
+    private void giveUp(OutboxEvent event, String error) {
+        event.setLastError(error);
+        event.setFailedAt(LocalDateTime.now());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deadLetters.increment();
+                log.error("Giving up on ticket history event {} for ticket {}: {}", event.getId(), event.getTicketId(), error);
+            }
+        });
+    }
+
+    private static String errorText(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String text = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return text.length() > 1000 ? text.substring(0, 1000) : text;
+    }
+
+    /**
+     * Give new messages consecutive thread positions, reserved once per ticket in ticket order;
+     * must run in the transaction that inserts them
+     */
+    private void assignThreadPositions(List<Message> messages) {
+        Map<Long, List<Message>> byTicket = new TreeMap<>();
+        for (Message message : messages) {
+            byTicket.computeIfAbsent(message.getTicket().getId(), id -> new ArrayList<>()).add(message);
+        }
+        byTicket.forEach((ticketId, thread) -> {
+            long next = ticketRepository.reserveThreadPositions(ticketId, thread.size()) - thread.size();
+            for (Message message : thread) {
+                message.setThreadSeq(++next);
+            }
+        });
+    }
+}
@@ -0,0 +1,570 @@
+package com.supportdesk.service;
+
+import com.supportdesk.dto.SearchPage;
+import com.supportdesk.dto.TicketFilter;
+import com.supportdesk.dto.TicketSearchHit;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.repository.MessageRepository;
+import com.supportdesk.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over ticket titles, descriptions and replies. Internal notes and
+ * generated history entries are left out, so searches never match text customers cannot see.
+ * Built in parallel from the database at startup and kept up to date by the ticket, message
+ * and import mutators, so searches are ranked (BM25) and filtered without touching the database.
+ * Common English words are not indexed. Each term's postings are sorted primitive arrays, so they
+ * cost no boxing and are intersected by binary search.
+ */
+@Component
+public class TicketSearchIndex {
+    // Title terms count this many times towards a ticket's term frequency
+    public static final int TITLE_BOOST = 3;
+
+    // Ticket IDs loaded per rebuild task
+    public static final int REBUILD_RANGE = 10000;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // Words too common to tell tickets apart; they are neither indexed nor searched for
+    private static final Set<String> STOPWORDS = Set.of("an", "and", "are", "as", "at", "be", "but", "by",
+            "for", "if", "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their",
+            "then", "there", "these", "they", "this", "to", "was", "will", "with");
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Value("${supportdesk.search.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The only message type whose content is searchable
+    public static final Message.MessageType SEARCHABLE_TYPE = Message.MessageType.REPLY;
+
+    // Ticket ID -> indexed fields, and term -> tickets containing it with their term frequencies
+    private Map<Long, Doc> docs = new HashMap<>();
+    private Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Rebuild the whole index from the database, loading ranges of ticket IDs in parallel
+     */
+    @PostConstruct
+    public void rebuild() {
+        Object[] range = ticketRepository.findIdRange().get(0);
+        Partial merged = new Partial();
+
+        if (range[0] != null) {
+            long minId = (Long) range[0];
+            long maxId = (Long) range[1];
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+            try {
+                List<Future<Partial>> parts = new ArrayList<>();
+                for (long from = minId; from <= maxId; from += REBUILD_RANGE) {
+                    long start = from;
+                    parts.add(executor.submit(() -> loadRange(start, start + REBUILD_RANGE)));
+                }
+                for (Future<Partial> part : parts) {
+                    merged.merge(part.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Search index rebuild interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Search index rebuild failed", e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            docs = merged.docs;
+            postings = merged.postings;
+            totalLength = merged.totalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Partial loadRange(long fromId, long toId) {
+        Partial part = new Partial();
+        for (Object[] row : ticketRepository.findSearchRowsInRange(fromId, toId)) {
+            Doc doc = new Doc((Long) row[0]);
+            doc.title = (String) row[1];
+            doc.status = (Ticket.TicketStatus) row[3];
+            doc.priority = (Ticket.TicketPriority) row[4];
+            doc.customerId = (Long) row[5];
+            doc.agentId = (Long) row[6];
+            doc.createdAt = (LocalDateTime) row[7];
+            part.docs.put(doc.id, doc);
+            part.totalLength += addTerms(part.postings, doc, doc.title, TITLE_BOOST)
+                    + addTerms(part.postings, doc, (String) row[2], 1);
+        }
+        for (Object[] row : messageRepository.findContentByTicketIdRange(fromId, toId, SEARCHABLE_TYPE)) {
+            Doc doc = part.docs.get((Long) row[0]);
+            if (doc != null) {
+                part.totalLength += addTerms(part.postings, doc, (String) row[1], 1);
+            }
+        }
+        return part;
+    }
+
+    /**
+     * Index a new ticket, or refresh the filterable fields of one already indexed
+     */
+    public void onTicketSaved(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.get(ticket.getId());
+            if (doc == null) {
+                doc = new Doc(ticket.getId());
+                doc.title = ticket.getTitle();
+                doc.customerId = ticket.getCustomer() != null ? ticket.getCustomer().getId() : null;
+                doc.createdAt = ticket.getCreatedAt();
+                docs.put(doc.id, doc);
+                totalLength += addTerms(postings, doc, ticket.getTitle(), TITLE_BOOST)
+                        + addTerms(postings, doc, ticket.getDescription(), 1);
+            }
+            doc.status = ticket.getStatus();
+            doc.priority = ticket.getPriority();
+            doc.agentId = ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a reply's content to its ticket's terms; other message types are not searchable
+     */
+    public void addMessage(Long ticketId, String content) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.get(ticketId);
+            if (doc != null) {
+                totalLength += addTerms(postings, doc, content, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a ticket found to be gone from the database. Its terms are not kept, so this visits every
+     * term's postings; tickets are only deleted outside this application, so it is rare
+     */
+    public void onTicketDeleted(Long ticketId) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = docs.remove(ticketId);
+            if (doc == null) {
+                return;
+            }
+            postings.values().removeIf(list -> list.remove(ticketId) && list.count() == 0);
+            totalLength -= doc.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find tickets containing every term of the query that match the filter, best match first
+     */
+    public SearchPage<TicketSearchHit> search(String query, TicketFilter filter, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return new SearchPage<>(List.of(), 0, null);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Walk the rarest term's postings in ID order and find each candidate in the other lists by
+            // binary search, starting from where the previous candidate was found
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return new SearchPage<>(List.of(), 0, null);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::count));
+
+            double[] idf = new double[lists.size()];
+            Postings.Cursor[] cursors = new Postings.Cursor[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).count();
+                idf[i] = Math.log(1 + (docs.size() - df + 0.5) / (df + 0.5));
+                cursors[i] = lists.get(i).cursor();
+            }
+            double avgLength = docs.isEmpty() ? 1 : Math.max(1.0, (double) totalLength / docs.size());
+
+            // Min-heap of the best offset + limit hits seen so far
+            int keep = offset + limit;
+            Comparator<TicketSearchHit> rank = Comparator.comparingDouble(TicketSearchHit::getScore)
+                    .thenComparingLong(TicketSearchHit::getId);
+            PriorityQueue<TicketSearchHit> best = new PriorityQueue<>(rank);
+            long total = 0;
+
+            Postings.Cursor rarest = cursors[0];
+            int[] tfs = new int[lists.size()];
+            candidates:
+            while (rarest.next()) {
+                long id = rarest.id();
+                tfs[0] = rarest.tf();
+                for (int i = 1; i < lists.size(); i++) {
+                    tfs[i] = cursors[i].seek(id);
+                    if (tfs[i] == 0) {
+                        if (cursors[i].exhausted()) {
+                            break candidates;
+                        }
+                        continue candidates;
+                    }
+                }
+                Doc doc = docs.get(id);
+                if (doc == null || !matches(doc, filter)) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * doc.length / avgLength);
+                double score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    score += idf[i] * tfs[i] * (K1 + 1) / (tfs[i] + norm);
+                }
+                total++;
+                if (best.size() < keep || score > best.peek().getScore()) {
+                    best.add(doc.toHit(score));
+                    if (best.size() > keep) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<TicketSearchHit> ranked = new ArrayList<>(best);
+            ranked.sort(rank.reversed());
+            List<TicketSearchHit> items = offset < ranked.size()
+                    ? ranked.subList(offset, ranked.size()) : List.of();
+            Integer nextOffset = keep < total ? keep : null;
+            return new SearchPage<>(new ArrayList<>(items), total, nextOffset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed tickets
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(Doc doc, TicketFilter filter) {
+        if (filter == null) {
+            return true;
+        }
+        return (filter.getStatus() == null || filter.getStatus() == doc.status)
+                && (filter.getPriority() == null || filter.getPriority() == doc.priority)
+                && (filter.getAgentId() == null || filter.getAgentId().equals(doc.agentId))
+                && (!filter.isUnassigned() || doc.agentId == null)
+                && (filter.getCustomerId() == null || filter.getCustomerId().equals(doc.customerId))
+                && (filter.getFrom() == null || (doc.createdAt != null && !doc.createdAt.isBefore(filter.getFrom())))
+                && (filter.getTo() == null || (doc.createdAt != null && doc.createdAt.isBefore(filter.getTo())));
+    }
+
+    // Add each term of the text weight times to the document; returns the length added
+    private static int addTerms(Map<String, Postings> postings, Doc doc, String text, int weight) {
+        int added = 0;
+        for (String term : tokenize(text)) {
+            postings.computeIfAbsent(term, t -> new Postings()).add(doc.id, weight);
+            added += weight;
+        }
+        doc.length += added;
+        return added;
+    }
+
+    /**
+     * Split text into lower-case letter/digit terms, leaving out stopwords
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= MIN_TERM_LENGTH && token.length() <= MAX_TERM_LENGTH
+                    && !STOPWORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static class Doc {
+        final Long id;
+        String title;
+        Ticket.TicketStatus status;
+        Ticket.TicketPriority priority;
+        Long customerId;
+        Long agentId;
+        LocalDateTime createdAt;
+        int length;
+
+        Doc(Long id) {
+            this.id = id;
+        }
+
+        TicketSearchHit toHit(double score) {
+            return new TicketSearchHit(id, title, status, priority, customerId, agentId, createdAt, score);
+        }
+    }
+
+    // Tickets containing one term with the term's frequency in each: a main run in ascending ID order
+    // and a short tail, also sorted, of IDs added out of order. An out-of-order add shifts only the tail,
+    // which is merged into the main run once it outgrows about the square root of the run's length, so
+    // an add moves O(√n) entries instead of O(n). A removed entry stays in the main run with a frequency
+    // of 0 until the next merge.
+    static final class Postings {
+        private static final int MIN_TAIL = 32;
+
+        long[] ids = new long[2];
+        int[] tfs = new int[2];
+        int size;
+        long[] tailIds = new long[0];
+        int[] tailTfs = new int[0];
+        int tailSize;
+        // Entries of the main run removed since the last merge
+        int removed;
+
+        // Number of tickets in the list
+        int count() {
+            return size - removed + tailSize;
+        }
+
+        void add(long id, int weight) {
+            // Tickets are mostly indexed in ID order, so check the end first
+            if ((size == 0 || ids[size - 1] < id) && (tailSize == 0 || tailIds[tailSize - 1] < id)) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    tfs = Arrays.copyOf(tfs, size * 2);
+                }
+                ids[size] = id;
+                tfs[size] = weight;
+                size++;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                if (tfs[at] == 0) {
+                    removed--;
+                }
+                tfs[at] += weight;
+                return;
+            }
+            at = Arrays.binarySearch(tailIds, 0, tailSize, id);
+            if (at >= 0) {
+                tailTfs[at] += weight;
+                return;
+            }
+            at = -at - 1;
+            if (tailSize == tailIds.length) {
+                tailIds = Arrays.copyOf(tailIds, Math.max(MIN_TAIL, tailSize * 2));
+                tailTfs = Arrays.copyOf(tailTfs, tailIds.length);
+            }
+            System.arraycopy(tailIds, at, tailIds, at + 1, tailSize - at);
+            System.arraycopy(tailTfs, at, tailTfs, at + 1, tailSize - at);
+            tailIds[at] = id;
+            tailTfs[at] = weight;
+            tailSize++;
+            compactIfDue();
+        }
+
+        // Remove a ticket; true if the list contained it
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                if (tfs[at] == 0) {
+                    return false;
+                }
+                tfs[at] = 0;
+                removed++;
+                compactIfDue();
+                return true;
+            }
+            at = Arrays.binarySearch(tailIds, 0, tailSize, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(tailIds, at + 1, tailIds, at, tailSize - at - 1);
+            System.arraycopy(tailTfs, at + 1, tailTfs, at, tailSize - at - 1);
+            tailSize--;
+            return true;
+        }
+
+        // Add every entry of other; a plain copy when all of them come after this list's last ID
+        void addAll(Postings other) {
+            compact();
+            other.compact();
+            if (size > 0 && other.size > 0 && other.ids[0] <= ids[size - 1]) {
+                for (int i = 0; i < other.size; i++) {
+                    add(other.ids[i], other.tfs[i]);
+                }
+                return;
+            }
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, size + other.size);
+                tfs = Arrays.copyOf(tfs, size + other.size);
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            System.arraycopy(other.tfs, 0, tfs, size, other.size);
+            size += other.size;
+        }
+
+        private void compactIfDue() {
+            if (tailSize + removed > Math.max(MIN_TAIL, (int) Math.sqrt(size))) {
+                compact();
+            }
+        }
+
+        // Merge the tail into the main run and drop the removed entries
+        void compact() {
+            if (tailSize == 0 && removed == 0) {
+                return;
+            }
+            int capacity = Math.max(2, count());
+            long[] mergedIds = new long[capacity];
+            int[] mergedTfs = new int[capacity];
+            int merged = 0;
+            int main = 0;
+            int tail = 0;
+            while (main < size || tail < tailSize) {
+                if (tail == tailSize || main < size && ids[main] < tailIds[tail]) {
+                    if (tfs[main] != 0) {
+                        mergedIds[merged] = ids[main];
+                        mergedTfs[merged++] = tfs[main];
+                    }
+                    main++;
+                } else {
+                    mergedIds[merged] = tailIds[tail];
+                    mergedTfs[merged++] = tailTfs[tail++];
+                }
+            }
+            ids = mergedIds;
+            tfs = mergedTfs;
+            size = merged;
+            tailSize = 0;
+            removed = 0;
+        }
+
+        Cursor cursor() {
+            return new Cursor();
+        }
+
+        // Reads the list in ascending ID order, or finds ascending IDs in it, across both runs
+        final class Cursor {
+            private int main;
+            private int tail;
+            private long id;
+            private int tf;
+
+            // Move to the next ticket in ID order; false at the end of the list
+            boolean next() {
+                while (main < size || tail < tailSize) {
+                    if (tail == tailSize || main < size && ids[main] < tailIds[tail]) {
+                        id = ids[main];
+                        tf = tfs[main++];
+                        if (tf != 0) {
+                            return true;
+                        }
+                    } else {
+                        id = tailIds[tail];
+                        tf = tailTfs[tail++];
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            long id() {
+                return id;
+            }
+
+            int tf() {
+                return tf;
+            }
+
+            // The term's frequency in a ticket, 0 if the list does not contain it; IDs must ascend
+            int seek(long ticketId) {
+                main = from(ids, main, size, ticketId);
+                if (main < size && ids[main] == ticketId) {
+                    return tfs[main];
+                }
+                tail = from(tailIds, tail, tailSize, ticketId);
+                if (tail < tailSize && tailIds[tail] == ticketId) {
+                    return tailTfs[tail];
+                }
+                return 0;
+            }
+
+            // True once every ticket in the list comes before the last ID sought
+            boolean exhausted() {
+                return main == size && tail == tailSize;
+            }
+        }
+
+        private static int from(long[] ids, int from, int to, long id) {
+            int at = Arrays.binarySearch(ids, from, to, id);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    // Index for one range of ticket IDs, built without locking and merged into the whole
+    private static class Partial {
+        final Map<Long, Doc> docs = new HashMap<>();
+        final Map<String, Postings> postings = new HashMap<>();
+        long totalLength;
+
+        // Ranges are merged in ascending order, so postings are appended
+        void merge(Partial other) {
+            docs.putAll(other.docs);
+            other.postings.forEach((term, list) -> postings.merge(term, list, (a, b) -> {
+                a.addAll(b);
+                return a;
+            }));
+            totalLength += other.totalLength;
+        }
+    }
+}
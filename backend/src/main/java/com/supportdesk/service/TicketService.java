@@ -1,27 +1,103 @@
 package com.supportdesk.service;
 
+import com.supportdesk.dto.BulkResult;
+import com.supportdesk.dto.CursorPage;
+import com.supportdesk.dto.SearchPage;
+import com.supportdesk.dto.TicketFilter;
+import com.supportdesk.dto.TicketSearchHit;
+import com.supportdesk.dto.TicketStats;
+import com.supportdesk.dto.TicketSummary;
 import com.supportdesk.model.Ticket;
 import com.supportdesk.model.User;
 import com.supportdesk.repository.TicketRepository;
-import com.supportdesk.repository.UserRepository;
+import com.supportdesk.util.AuthenticatedUser;
+import com.supportdesk.util.SqlStatementCounter;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "supportdesk.service", histogram = true)
 public class TicketService {
+    private static final Logger log = LoggerFactory.getLogger(TicketService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BULK_SIZE = 5000;
+    public static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private static final String CONFLICT_MESSAGE = "Ticket was changed by someone else, please try again";
+
+    // TicketRepository.updateIfVersion in SQL, for JDBC batches
+    private static final String UPDATE_IF_VERSION_SQL = "UPDATE tickets SET status = ?, priority = ?, agent_id = ?, " +
+            "sla_due_at = ?, first_response_at = ?, updated_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final int[] UPDATE_IF_VERSION_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+            Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT};
+
     @Autowired
     private TicketRepository ticketRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    @Autowired
+    private TicketSearchIndex ticketSearchIndex;
+
+    @Autowired
+    private TicketCounters ticketCounters;
+
+    @Autowired
+    private SlaTimer slaTimer;
+
+    @Autowired
+    private AgentRouter agentRouter;
+
+    @Autowired
+    private TicketEventPipeline ticketEventPipeline;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
 
     /**
      * Create a new ticket
      */
     public Ticket createTicket(Long customerId, String title, String description, Ticket.TicketPriority priority) {
-        User customer = userRepository.findById(customerId)
+        User customer = userCache.findById(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + customerId));
 
         if (!customer.getRole().equals(User.UserRole.CUSTOMER)) {
@@ -35,146 +111,552 @@ public class TicketService {
         ticket.setPriority(priority != null ? priority : Ticket.TicketPriority.MEDIUM);
         ticket.setStatus(Ticket.TicketStatus.OPEN);
 
-        // Auto-assign ticket to an available agent (simple round-robin logic)
-        assignTicketToAgent(ticket);
+        // Auto-assign ticket to the agent chosen by the routing strategy
+        Optional<User> agent = routeTicket(ticket, null);
+        agent.ifPresent(ticket::setAssignedAgent);
+        try {
+            ticket.setSlaDueAt(slaTimer.dueAt(ticket, ticket.getCreatedAt()));
 
-        return ticketRepository.save(ticket);
+            Ticket saved = saveWithHistory(ticket, null, null, null);
+            ticketCache.put(saved);
+            slaTimer.schedule(saved.getId(), saved.getSlaDueAt());
+            agentLoadIndex.onTicketChanged(null, null, null, agentIdOf(saved), saved.getStatus(), saved.getPriority());
+            agent.ifPresent(a -> agentRouter.onAssigned(saved, a.getId()));
+            ticketCounters.onTicketChanged(null, TicketCounters.State.of(saved));
+            ticketSearchIndex.onTicketSaved(saved);
+            eventStreamService.publishTicket(TicketSummary.of(saved), null);
+            return saved;
+        } finally {
+            agent.ifPresent(a -> agentLoadIndex.release(a.getId(), ticket.getPriority()));
+        }
     }
 
     /**
-     * Auto-assign ticket to agent with least open tickets (load balancing)
+     * Get the agent chosen by the routing strategy, skipping excludedAgentId. The ticket already counts
+     * towards that agent's load, so concurrent callers do not all get the same agent; release the
+     * reservation once the saved ticket has been counted, or when it could not be saved
      */
-    private void assignTicketToAgent(Ticket ticket) {
-        List<User> activeAgents = userRepository.findByRoleAndActive(User.UserRole.AGENT, true);
+    private Optional<User> routeTicket(Ticket ticket, Long excludedAgentId) {
+        Optional<Long> agentId;
+        while ((agentId = agentRouter.chooseAgent(ticket, excludedAgentId)).isPresent()) {
+            Optional<User> agent = userCache.findById(agentId.get());
+            if (agent.isPresent() && Boolean.TRUE.equals(agent.get().getActive())
+                    && agent.get().getRole().equals(User.UserRole.AGENT)) {
+                return agent;
+            }
+            // Agent was removed or changed outside this service; drop the stale entry and its reservation
+            agentLoadIndex.removeAgent(agentId.get());
+        }
+        return Optional.empty();
+    }
 
-        if (!activeAgents.isEmpty()) {
-            // Find agent with least open tickets (load balancing)
-            User leastBusyAgent = activeAgents.stream()
-                    .min((a, b) -> {
-                        long aTicketCount = ticketRepository.findByAssignedAgentIdAndStatus(a.getId(), Ticket.TicketStatus.OPEN).size() +
-                                ticketRepository.findByAssignedAgentIdAndStatus(a.getId(), Ticket.TicketStatus.IN_PROGRESS).size();
-                        long bTicketCount = ticketRepository.findByAssignedAgentIdAndStatus(b.getId(), Ticket.TicketStatus.OPEN).size() +
-                                ticketRepository.findByAssignedAgentIdAndStatus(b.getId(), Ticket.TicketStatus.IN_PROGRESS).size();
-                        return Long.compare(aTicketCount, bTicketCount);
-                    })
-                    .orElse(activeAgents.get(0));
-            ticket.setAssignedAgent(leastBusyAgent);
+    /**
+     * Resolve the acting user's role from the request's token; a userId naming anyone else is refused.
+     * Only requests without a token fall back to looking the given user up in the database
+     */
+    private User.UserRole getUserRole(Long userId) {
+        Optional<AuthenticatedUser> caller = AuthenticatedUser.current();
+        if (caller.isPresent()) {
+            if (userId != null && !userId.equals(caller.get().getId())) {
+                throw new AccessDeniedException("User ID " + userId + " is not the authenticated user");
+            }
+            return caller.get().getRole();
+        }
+        if (userId == null) {
+            throw new RuntimeException("User ID is required");
         }
+        return userCache.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId))
+                .getRole();
+    }
+
+    private static Long agentIdOf(Ticket ticket) {
+        return ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : null;
     }
 
     /**
-     * Get ticket by ID
+     * Save a ticket and queue its history entries (status, priority, assignment) in one transaction
      */
-    public Optional<Ticket> getTicketById(Long ticketId) {
-        return ticketRepository.findById(ticketId);
+    private Ticket saveWithHistory(Ticket ticket, TicketCounters.State before, Long actorId, String reason) {
+        return transactionTemplate.execute(tx -> {
+            Ticket saved = ticketRepository.save(ticket);
+            ticketEventPipeline.recordChanges(before, saved, actorId, reason);
+            return saved;
+        });
+    }
+
+    // A committed change: the ticket's state before it and the saved ticket
+    private static class Update {
+        final TicketCounters.State before;
+        final Ticket saved;
+
+        Update(TicketCounters.State before, Ticket saved) {
+            this.before = before;
+            this.saved = saved;
+        }
     }
 
     /**
-     * Get all tickets for a customer
+     * Apply the change to the cached ticket and write it with its history in one transaction. The write
+     * is a single conditional UPDATE guarded by the version that was read, with no read before it;
+     * when another writer got there first the row is read again and the change reapplied, up to
+     * MAX_UPDATE_ATTEMPTS times. The change may therefore run more than once and must only modify
+     * the ticket; anything else belongs after the update has committed
      */
-    public List<Ticket> getTicketsByCustomer(Long customerId) {
-        return ticketRepository.findByCustomerId(customerId);
+    private Update updateTicket(Long ticketId, Long actorId, String reason, Consumer<Ticket> change) {
+        for (int attempt = 1; ; attempt++) {
+            boolean reread = attempt > 1;
+            Update update = transactionTemplate.execute(tx -> {
+                Ticket ticket = (reread ? ticketCache.refresh(ticketId) : ticketCache.findById(ticketId))
+                        .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
+                return writeChange(ticket, change, actorId, reason);
+            });
+            if (update != null) {
+                return update;
+            }
+            if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                Ticket current = transactionTemplate.execute(tx -> ticketCache.refresh(ticketId).orElse(null));
+                if (current == null) {
+                    ticketSearchIndex.onTicketDeleted(ticketId);
+                }
+                throw new TicketConflictException(CONFLICT_MESSAGE, current);
+            }
+            backOff(attempt);
+        }
     }
 
     /**
-     * Get all tickets assigned to an agent
+     * Apply the change and write the ticket with a conditional UPDATE, unless the change left it as it
+     * was; null when the row has moved past the version the ticket was read at
      */
-    public List<Ticket> getTicketsByAgent(Long agentId) {
-        return ticketRepository.findByAssignedAgentId(agentId);
+    private Update writeChange(Ticket ticket, Consumer<Ticket> change, Long actorId, String reason) {
+        TicketCounters.State before = TicketCounters.State.of(ticket);
+        List<Object> columns = writableColumns(ticket);
+        change.accept(ticket);
+        if (columns.equals(writableColumns(ticket))) {
+            return new Update(before, ticket);
+        }
+        ticket.setUpdatedAt(LocalDateTime.now());
+        if (ticketRepository.updateIfVersion(ticket.getId(), ticket.getVersion(), ticket.getStatus(),
+                ticket.getPriority(), ticket.getAssignedAgent(), ticket.getSlaDueAt(), ticket.getFirstResponseAt(),
+                ticket.getUpdatedAt()) == 0) {
+            return null;
+        }
+        ticket.setVersion(ticket.getVersion() + 1);
+        ticketEventPipeline.recordChanges(before, ticket, actorId, reason);
+        return new Update(before, ticket);
+    }
+
+    // The columns a ticket change may write, compared before and after to skip writes that change nothing
+    private static List<Object> writableColumns(Ticket ticket) {
+        return Arrays.asList(ticket.getStatus(), ticket.getPriority(), agentIdOf(ticket), ticket.getSlaDueAt(),
+                ticket.getFirstResponseAt());
+    }
+
+    // Random pause of up to 2^attempt ms so writers contending for the same ticket spread out
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1L << attempt) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying a ticket update", e);
+        }
     }
 
     /**
-     * Get all unassigned tickets
+     * Bring the ticket cache, SLA timer, load index, counters, search index and event streams up to
+     * date with a committed change
      */
-    public List<Ticket> getUnassignedTickets() {
-        return ticketRepository.findByAssignedAgentIsNull();
+    private Ticket afterUpdate(Update update) {
+        TicketCounters.State before = update.before;
+        Ticket saved = update.saved;
+        ticketCache.put(saved);
+        slaTimer.schedule(saved.getId(), saved.getSlaDueAt());
+        agentLoadIndex.onTicketChanged(before.getAgentId(), before.getStatus(), before.getPriority(),
+                agentIdOf(saved), saved.getStatus(), saved.getPriority());
+        ticketCounters.onTicketChanged(before, TicketCounters.State.of(saved));
+        ticketSearchIndex.onTicketSaved(saved);
+        eventStreamService.publishTicket(TicketSummary.of(saved), before.getAgentId());
+        return saved;
     }
 
     /**
-     * Get all tickets
+     * Get ticket by ID, from the ticket cache when possible. A ticket that is gone, such as one opened
+     * from a search hit after being deleted elsewhere, is dropped from the search index
      */
-    public List<Ticket> getAllTickets() {
-        return ticketRepository.findAll();
+    public Optional<Ticket> getTicketById(Long ticketId) {
+        Optional<Ticket> ticket = ticketCache.findById(ticketId);
+        if (ticket.isEmpty()) {
+            ticketSearchIndex.onTicketDeleted(ticketId);
+        }
+        return ticket;
     }
 
     /**
-     * Update ticket status (only agents can update status)
+     * Get one keyset page of ticket summaries matching the filter, newest first; pass the previous
+     * page's cursor as before to get the next one
      */
-    public Ticket updateTicketStatus(Long ticketId, Ticket.TicketStatus status, Long userId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
+    @Transactional(readOnly = true)
+    public CursorPage<TicketSummary> getTickets(TicketFilter filter, Long before, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        // Fetch one extra row to learn whether another page exists
+        List<TicketSummary> rows = ticketRepository.findSummaryPage(before, filter.getCustomerId(), filter.getAgentId(),
+                filter.isUnassigned(), filter.getStatus(), filter.getPriority(), filter.getFrom(), filter.getTo(),
+                PageRequest.of(0, size + 1));
 
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TicketSummary> items = rows.subList(0, size);
+        return new CursorPage<>(items, items.get(size - 1).getId());
+    }
+
+    /**
+     * Full-text search over ticket titles, descriptions and messages, best match first
+     */
+    public SearchPage<TicketSearchHit> searchTickets(String query, TicketFilter filter, Integer offset, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int start = offset == null ? 0 : Math.max(0, offset);
+        return ticketSearchIndex.search(query, filter, start, size);
+    }
+
+    /**
+     * Update ticket status (only agents can update status)
+     */
+    public Ticket updateTicketStatus(Long ticketId, Ticket.TicketStatus status, Long userId) {
         // Only agents can update ticket status
-        if (!user.getRole().equals(User.UserRole.AGENT)) {
+        if (!getUserRole(userId).equals(User.UserRole.AGENT)) {
             throw new RuntimeException("Only agents can update ticket status");
         }
 
-        ticket.setStatus(status);
-        return ticketRepository.save(ticket);
+        return afterUpdate(updateTicket(ticketId, userId, null, ticket -> {
+            Ticket.TicketStatus oldStatus = ticket.getStatus();
+            ticket.setStatus(status);
+            updateSlaForStatus(ticket, oldStatus);
+        }));
     }
 
     /**
      * Update ticket priority (only agents can update priority)
      */
     public Ticket updateTicketPriority(Long ticketId, Ticket.TicketPriority priority, Long userId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
-
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-
         // Only agents can update ticket priority
-        if (!user.getRole().equals(User.UserRole.AGENT)) {
+        if (!getUserRole(userId).equals(User.UserRole.AGENT)) {
             throw new RuntimeException("Only agents can update ticket priority");
         }
 
-        ticket.setPriority(priority);
-        return ticketRepository.save(ticket);
+        return afterUpdate(updateTicket(ticketId, userId, null, ticket -> ticket.setPriority(priority)));
     }
 
     /**
      * Assign ticket to an agent
      */
     public Ticket assignTicketToAgent(Long ticketId, Long agentId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
-
-        User agent = userRepository.findById(agentId)
+        User agent = userCache.findById(agentId)
                 .orElseThrow(() -> new RuntimeException("Agent not found with ID: " + agentId));
 
         if (!agent.getRole().equals(User.UserRole.AGENT)) {
             throw new RuntimeException("User is not an agent");
         }
 
-        ticket.setAssignedAgent(agent);
-        return ticketRepository.save(ticket);
+        Ticket saved = afterUpdate(updateTicket(ticketId, null, null, ticket -> ticket.setAssignedAgent(agent)));
+        agentRouter.onAssigned(saved, agentId);
+        return saved;
     }
 
     /**
      * Unassign ticket from agent
      */
     public Ticket unassignTicket(Long ticketId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new RuntimeException("Ticket not found with ID: " + ticketId));
+        return afterUpdate(updateTicket(ticketId, null, null, ticket -> ticket.setAssignedAgent(null)));
+    }
+
+    /**
+     * Update the status of many tickets in one transaction (only agents can update status)
+     */
+    public List<BulkResult> bulkUpdateStatus(List<Long> ticketIds, Ticket.TicketStatus status, Long userId) {
+        if (!getUserRole(userId).equals(User.UserRole.AGENT)) {
+            throw new RuntimeException("Only agents can update ticket status");
+        }
+        return bulkUpdate(ticketIds, userId, ticket -> {
+            Ticket.TicketStatus oldStatus = ticket.getStatus();
+            ticket.setStatus(status);
+            updateSlaForStatus(ticket, oldStatus);
+        }, saved -> { });
+    }
+
+    /**
+     * Update the priority of many tickets in one transaction (only agents can update priority)
+     */
+    public List<BulkResult> bulkUpdatePriority(List<Long> ticketIds, Ticket.TicketPriority priority, Long userId) {
+        if (!getUserRole(userId).equals(User.UserRole.AGENT)) {
+            throw new RuntimeException("Only agents can update ticket priority");
+        }
+        return bulkUpdate(ticketIds, userId, ticket -> ticket.setPriority(priority), saved -> { });
+    }
+
+    /**
+     * Assign many tickets to one agent in one transaction
+     */
+    public List<BulkResult> bulkAssignToAgent(List<Long> ticketIds, Long agentId) {
+        User agent = userCache.findById(agentId)
+                .orElseThrow(() -> new RuntimeException("Agent not found with ID: " + agentId));
+
+        if (!agent.getRole().equals(User.UserRole.AGENT)) {
+            throw new RuntimeException("User is not an agent");
+        }
+        return bulkUpdate(ticketIds, null, ticket -> ticket.setAssignedAgent(agent),
+                saved -> agentRouter.onAssigned(saved, agentId));
+    }
+
+    /**
+     * Unassign many tickets in one transaction
+     */
+    public List<BulkResult> bulkUnassign(List<Long> ticketIds) {
+        return bulkUpdate(ticketIds, null, ticket -> ticket.setAssignedAgent(null), saved -> { });
+    }
+
+    /**
+     * Read all tickets with one IN query, apply the change and write the changed ones as one JDBC batch
+     * of conditional updates in a single transaction; the caches, load index and event streams are
+     * updated only after commit, and afterCommit then runs for each updated ticket. Tickets changed
+     * concurrently are read and updated again on their own, up to MAX_UPDATE_ATTEMPTS times, and are
+     * reported as conflicts if they still lose; the rest of the batch is not held back by them
+     */
+    private List<BulkResult> bulkUpdate(List<Long> ticketIds, Long actorId, Consumer<Ticket> change,
+                                        Consumer<Ticket> afterCommit) {
+        if (ticketIds == null || ticketIds.isEmpty()) {
+            throw new RuntimeException("No ticket IDs given");
+        }
+        if (ticketIds.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("At most " + MAX_BULK_SIZE + " tickets can be updated at once");
+        }
+
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(ticketIds));
+        Map<Long, BulkResult> results = new HashMap<>();
+        List<Long> pending = ids;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<Long> batch = pending;
+            List<Update> applied = new ArrayList<>();
+            List<Long> stale = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(tx -> {
+                applied.clear();
+                stale.clear();
+                writeBatch(batch, actorId, change, applied, stale);
+            });
+
+            for (Update update : applied) {
+                Ticket saved = afterUpdate(update);
+                afterCommit.accept(saved);
+                results.put(saved.getId(), BulkResult.ok(saved.getId()));
+            }
+            if (!stale.isEmpty() && attempt >= MAX_UPDATE_ATTEMPTS) {
+                for (Long id : stale) {
+                    ticketCache.invalidate(id);
+                    results.put(id, BulkResult.conflict(id, CONFLICT_MESSAGE));
+                }
+                break;
+            }
+            if (!stale.isEmpty()) {
+                backOff(attempt);
+            }
+            pending = stale;
+        }
+
+        List<BulkResult> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BulkResult result = results.get(id);
+            ordered.add(result != null ? result : BulkResult.failed(id, "Ticket not found with ID: " + id));
+        }
+        return ordered;
+    }
+
+    /**
+     * Read the tickets again, apply the change and send the conditional updates of the changed ones
+     * as one JDBC batch, sorting the tickets into applied and stale by their update counts. Must run
+     * in the writing transaction
+     */
+    private void writeBatch(List<Long> ticketIds, Long actorId, Consumer<Ticket> change,
+                            List<Update> applied, List<Long> stale) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Update> changed = new ArrayList<>();
+        // In ID order, like the history writer's thread position updates, so the two cannot deadlock
+        for (Ticket ticket : ticketCache.refreshAll(ticketIds)) {
+            TicketCounters.State before = TicketCounters.State.of(ticket);
+            List<Object> columns = writableColumns(ticket);
+            change.accept(ticket);
+            if (columns.equals(writableColumns(ticket))) {
+                applied.add(new Update(before, ticket));
+            } else {
+                ticket.setUpdatedAt(now);
+                changed.add(new Update(before, ticket));
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(changed.size());
+        for (Update update : changed) {
+            Ticket ticket = update.saved;
+            rows.add(new Object[]{ticket.getStatus().name(), ticket.getPriority().name(), agentIdOf(ticket),
+                    timestampOf(ticket.getSlaDueAt()), timestampOf(ticket.getFirstResponseAt()),
+                    timestampOf(ticket.getUpdatedAt()), ticket.getId(), ticket.getVersion()});
+        }
+        // The batch bypasses Hibernate, so it is counted against the open statement budgets here, as
+        // the one round trip it is
+        sqlStatementCounter.inspect(UPDATE_IF_VERSION_SQL);
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_IF_VERSION_SQL, rows, UPDATE_IF_VERSION_TYPES);
+
+        // Drivers that rewrite batches may not report per-row counts; our own writes hold their row
+        // locks, so a version one past the one read means the update applied
+        List<Long> unreported = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unreported.add(changed.get(i).saved.getId());
+            }
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        if (!unreported.isEmpty()) {
+            for (Object[] row : ticketRepository.findVersions(unreported)) {
+                versions.put((Long) row[0], (Long) row[1]);
+            }
+        }
 
-        ticket.setAssignedAgent(null);
-        return ticketRepository.save(ticket);
+        for (int i = 0; i < counts.length; i++) {
+            Update update = changed.get(i);
+            Ticket ticket = update.saved;
+            boolean written = counts[i] == Statement.SUCCESS_NO_INFO
+                    ? Long.valueOf(ticket.getVersion() + 1).equals(versions.get(ticket.getId()))
+                    : counts[i] > 0;
+            if (written) {
+                ticket.setVersion(ticket.getVersion() + 1);
+                ticketEventPipeline.recordChanges(update.before, ticket, actorId, null);
+                applied.add(update);
+            } else {
+                stale.add(ticket.getId());
+            }
+        }
+    }
+
+    private static Timestamp timestampOf(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    /**
+     * Stop the SLA clock when a ticket is resolved or closed, and restart it when the ticket is
+     * reopened (or has no deadline yet)
+     */
+    private void updateSlaForStatus(Ticket ticket, Ticket.TicketStatus oldStatus) {
+        if (!SlaTimer.isActive(ticket.getStatus())) {
+            ticket.setSlaDueAt(null);
+        } else if (!SlaTimer.isActive(oldStatus) || ticket.getSlaDueAt() == null) {
+            ticket.setSlaDueAt(slaTimer.dueAt(ticket, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Escalate every ticket whose SLA deadline has passed
+     */
+    @Scheduled(fixedDelayString = "${supportdesk.sla.tick-ms:1000}")
+    public void escalateOverdueTickets() {
+        for (Long ticketId : slaTimer.pollDue()) {
+            try {
+                escalateTicket(ticketId);
+            } catch (RuntimeException e) {
+                log.warn("Could not escalate ticket {}, retrying in a minute", ticketId, e);
+                slaTimer.schedule(ticketId, LocalDateTime.now().plusMinutes(1));
+            }
+        }
+    }
+
+    /**
+     * Escalate an overdue ticket: raise its priority one level, or once it is urgent hand it to the
+     * least busy other agent, then start its next deadline
+     */
+    public void escalateTicket(Long ticketId) {
+        LocalDateTime now = LocalDateTime.now();
+        Ticket ticket = ticketCache.findById(ticketId).orElse(null);
+        if (ticket == null || ticket.getSlaDueAt() == null) {
+            return;
+        }
+        if (ticket.getSlaDueAt().isAfter(now)) {
+            // Deadline was moved since it was scheduled
+            slaTimer.schedule(ticketId, ticket.getSlaDueAt());
+            return;
+        }
+
+        // An urgent ticket goes to another agent, routed (and reserved) once rather than on every attempt
+        Optional<User> replacement = ticket.getPriority() == Ticket.TicketPriority.URGENT
+                ? routeTicket(ticket, agentIdOf(ticket)) : Optional.empty();
+        try {
+            Ticket saved = afterUpdate(updateTicket(ticketId, null, "SLA deadline passed", current -> {
+                if (current.getSlaDueAt() == null || current.getSlaDueAt().isAfter(now)) {
+                    // Stopped or moved by a concurrent update
+                    return;
+                }
+                if (current.getPriority() != Ticket.TicketPriority.URGENT) {
+                    current.setPriority(Ticket.TicketPriority.values()[current.getPriority().ordinal() + 1]);
+                } else if (replacement.isPresent() && !replacement.get().getId().equals(agentIdOf(current))) {
+                    current.setAssignedAgent(replacement.get());
+                }
+                current.setSlaDueAt(slaTimer.dueAt(current, now));
+            }));
+            replacement.filter(agent -> agent.getId().equals(agentIdOf(saved)))
+                    .ifPresent(agent -> agentRouter.onAssigned(saved, agent.getId()));
+        } finally {
+            replacement.ifPresent(agent -> agentLoadIndex.release(agent.getId(), ticket.getPriority()));
+        }
+    }
+
+    /**
+     * Record an agent's first reply: the response deadline is met and the resolution deadline starts
+     */
+    public void recordFirstResponse(Long ticketId, LocalDateTime respondedAt) {
+        afterUpdate(updateTicket(ticketId, null, null, ticket -> {
+            if (ticket.getFirstResponseAt() == null) {
+                ticket.setFirstResponseAt(respondedAt);
+                ticket.setSlaDueAt(slaTimer.dueAt(ticket, ticket.getCreatedAt()));
+            }
+        }));
+    }
+
+    /**
+     * Get ticket cache size and hit/miss statistics
+     */
+    public Map<String, Object> getCacheStats() {
+        return ticketCache.getStats();
+    }
+
+    /**
+     * Get the routing strategy in use and its decision latency statistics
+     */
+    public Map<String, Object> getRoutingStats() {
+        return agentRouter.getStats();
+    }
+
+    /**
+     * Get dashboard counts for an agent's assigned tickets
+     */
+    public TicketStats getAgentStats(Long agentId) {
+        return ticketCounters.getAgentStats(agentId);
     }
 
     /**
-     * Get open tickets for a customer
+     * Get dashboard counts for a customer's tickets
      */
-    public List<Ticket> getOpenTicketsByCustomer(Long customerId) {
-        return ticketRepository.findByCustomerIdAndStatus(customerId, Ticket.TicketStatus.OPEN);
+    public TicketStats getCustomerStats(Long customerId) {
+        return ticketCounters.getCustomerStats(customerId);
     }
 
     /**
-     * Get in-progress tickets assigned to an agent
+     * Get dashboard counts across all tickets
      */
-    public List<Ticket> getInProgressTicketsByAgent(Long agentId) {
-        return ticketRepository.findByAssignedAgentIdAndStatus(agentId, Ticket.TicketStatus.IN_PROGRESS);
+    public TicketStats getOverallStats() {
+        return ticketCounters.getOverallStats();
     }
 }
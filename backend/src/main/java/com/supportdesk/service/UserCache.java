@@ -0,0 +1,103 @@
+package com.supportdesk.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded, TTL-evicting read-through cache for user lookups by ID and email.
+ * Cached users are detached and shared, so callers must not modify them; UserService
+ * loads users straight from the repository for updates and invalidates them afterwards.
+ */
+@Component
+public class UserCache implements MeterBinder {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${supportdesk.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${supportdesk.user-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<Long, User> byId;
+    private Cache<String, User> byEmail;
+
+    @PostConstruct
+    public void init() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a user by ID, loading it on a miss; unknown IDs are not cached
+     */
+    public Optional<User> findById(Long userId) {
+        return Optional.ofNullable(byId.get(userId, id -> userRepository.findById(id).orElse(null)));
+    }
+
+    /**
+     * Get a user by email, loading it on a miss; unknown emails are not cached
+     */
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(byEmail.get(email, e -> userRepository.findByEmail(e).orElse(null)));
+    }
+
+    /**
+     * Drop a user from both lookups after it changed
+     */
+    public void invalidate(User user) {
+        byId.invalidate(user.getId());
+        byEmail.invalidate(user.getEmail());
+    }
+
+    /**
+     * Publish both lookups as the users.byId and users.byEmail caches
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "users.byId");
+        CaffeineCacheMetrics.monitor(registry, byEmail, "users.byEmail");
+    }
+
+    /**
+     * Hit/miss counters for both lookups
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", describe(byId.stats(), byId.estimatedSize()));
+        stats.put("byEmail", describe(byEmail.stats(), byEmail.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", size);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
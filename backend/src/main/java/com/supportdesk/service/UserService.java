@@ -1,23 +1,37 @@
 package com.supportdesk.service;
 
+import com.supportdesk.model.Ticket;
 import com.supportdesk.model.User;
 import com.supportdesk.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed(value = "supportdesk.service", histogram = true)
 public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    @Autowired
+    private TicketCounters ticketCounters;
+
     /**
      * Register a new user
      */
     public User registerUser(String email, String password, String firstName, String lastName, User.UserRole role) {
         // Check if user already exists
-        if (userRepository.findByEmail(email).isPresent()) {
+        if (userCache.findByEmail(email).isPresent()) {
             throw new RuntimeException("User with email " + email + " already exists");
         }
 
@@ -29,14 +43,18 @@ public class UserService {
         user.setRole(role);
         user.setActive(true);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (saved.getRole().equals(User.UserRole.AGENT)) {
+            agentLoadIndex.addAgent(saved.getId(), new long[Ticket.TicketPriority.values().length]);
+        }
+        return saved;
     }
 
     /**
      * Authenticate user by email and password
      */
     public Optional<User> authenticateUser(String email, String password) {
-        Optional<User> user = userRepository.findByEmail(email);
+        Optional<User> user = userCache.findByEmail(email);
         if (user.isPresent() && user.get().getPassword().equals(password)) {
             return user;
         }
@@ -47,19 +65,20 @@ public class UserService {
      * Get user by ID
      */
     public Optional<User> getUserById(Long userId) {
-        return userRepository.findById(userId);
+        return userCache.findById(userId);
     }
 
     /**
      * Get user by email
      */
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCache.findByEmail(email);
     }
 
     /**
      * Get all users with a specific role
      */
+    @Transactional(readOnly = true)
     public List<User> getUsersByRole(User.UserRole role) {
         return userRepository.findByRole(role);
     }
@@ -67,6 +86,7 @@ public class UserService {
     /**
      * Get all active agents
      */
+    @Transactional(readOnly = true)
     public List<User> getActiveAgents() {
         return userRepository.findByRoleAndActive(User.UserRole.AGENT, true);
     }
@@ -81,7 +101,9 @@ public class UserService {
         user.setFirstName(firstName);
         user.setLastName(lastName);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(saved);
+        return saved;
     }
 
     /**
@@ -92,7 +114,10 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
         user.setActive(false);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(saved);
+        agentLoadIndex.removeAgent(saved.getId());
+        return saved;
     }
 
     /**
@@ -103,6 +128,18 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
         user.setActive(true);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(saved);
+        if (saved.getRole().equals(User.UserRole.AGENT)) {
+            agentLoadIndex.addAgent(saved.getId(), ticketCounters.getOpenByPriority(saved.getId()));
+        }
+        return saved;
+    }
+
+    /**
+     * Hit/miss statistics of the user lookup cache
+     */
+    public Map<String, Object> getCacheStats() {
+        return userCache.getStats();
     }
 }
@@ -0,0 +1,25 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Optional;
+
+/**
+ * Route to the agent with the lowest priority-weighted load, so five urgent tickets
+ * count for more than five low ones; ties go to the lower agent ID. AgentLoadIndex keeps
+ * the agents sorted by that load, so a decision is a sorted-set lookup and reservation
+ * in one step rather than a scan over every agent
+ */
+@Component(WeightedLoadRouting.NAME)
+public class WeightedLoadRouting implements RoutingStrategy {
+    public static final String NAME = "weighted-load";
+
+    @Autowired
+    private AgentLoadIndex agentLoadIndex;
+
+    @Override
+    public Optional<Long> chooseAgent(Ticket ticket, Long excludedAgentId) {
+        return agentLoadIndex.pickLeastWeightedAndIncrement(excludedAgentId, ticket.getPriority());
+    }
+}
@@ -0,0 +1,44 @@
+package com.supportdesk.util;
+
+import com.supportdesk.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.Optional;
+
+/**
+ * Caller identity taken from a verified JWT, available to services for the duration of a request
+ */
+@Data
+@AllArgsConstructor
+public class AuthenticatedUser {
+    private static final ThreadLocal<AuthenticatedUser> CURRENT = new ThreadLocal<>();
+
+    private Long id;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    private User.UserRole role;
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    /**
+     * Get the authenticated caller of the current request, if any
+     */
+    public static Optional<AuthenticatedUser> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    static void set(AuthenticatedUser user) {
+        CURRENT.set(user);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
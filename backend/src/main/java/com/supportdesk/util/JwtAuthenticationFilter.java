@@ -0,0 +1,64 @@
+package com.supportdesk.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Resolves the Bearer token of each request into an AuthenticatedUser without touching the database.
+ * Requests without a token pass through anonymously; requests with an invalid token get 401.
+ * Event streams may carry the token as an access_token parameter, since browsers cannot set
+ * headers on an EventSource.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String EVENTS_PATH = "/events/";
+    private static final String TOKEN_PARAMETER = "access_token";
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = tokenOf(request);
+        if (token == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser user;
+        try {
+            user = jwtTokenProvider.getAuthenticatedUser(token);
+        } catch (Exception e) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Invalid or expired token");
+            return;
+        }
+
+        AuthenticatedUser.set(user);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            AuthenticatedUser.clear();
+        }
+    }
+
+    private static String tokenOf(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length());
+        }
+        if (request.getServletPath().startsWith(EVENTS_PATH)) {
+            return request.getParameter(TOKEN_PARAMETER);
+        }
+        return null;
+    }
+}
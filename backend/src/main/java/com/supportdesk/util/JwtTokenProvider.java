@@ -1,12 +1,17 @@
 package com.supportdesk.util;
 
+import com.supportdesk.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 
 @Component
@@ -15,9 +20,20 @@ public class JwtTokenProvider {
     // Secret key for signing JWT - should be at least 32 bytes for HS256
     private static final String SECRET_KEY = "your-secret-key-must-be-at-least-32-characters-long-for-hs256-algorithm";
     private static final long EXPIRATION_TIME = 86400000; // 24 hours in milliseconds
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10000;
+    
+    // Key and parser are immutable and thread-safe, so build them once
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parser().verifyWith(signingKey).build();
+    
+    // Already verified token -> claims; lock-free reads, and no entry outlives the longest token lifetime
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfterWrite(Duration.ofMillis(EXPIRATION_TIME))
+            .build();
     
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        return signingKey;
     }
     
     /**
@@ -44,10 +60,7 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            getAllClaimsFromToken(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -71,13 +84,34 @@ public class JwtTokenProvider {
     }
     
     /**
-     * Get all claims from JWT token
+     * Get the caller identity carried by a JWT token
+     */
+    public AuthenticatedUser getAuthenticatedUser(String token) {
+        Claims claims = getAllClaimsFromToken(token);
+        return new AuthenticatedUser(
+                Long.parseLong(claims.getSubject()),
+                claims.get("email", String.class),
+                claims.get("firstName", String.class),
+                claims.get("lastName", String.class),
+                User.UserRole.valueOf(claims.get("role", String.class)));
+    }
+    
+    /**
+     * Get all claims from JWT token, verifying the signature only the first time a token is seen
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            if (cached.getExpiration() == null || cached.getExpiration().after(new Date())) {
+                return cached;
+            }
+            // Expired since it was cached; re-parsing below throws ExpiredJwtException
+            verifiedTokens.invalidate(token);
+        }
+        
+        // Verified outside the cache, so a miss never holds a lock other requests wait on
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(token, claims);
+        return claims;
     }
 }
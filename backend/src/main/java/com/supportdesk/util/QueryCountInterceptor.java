@@ -0,0 +1,85 @@
+package com.supportdesk.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import java.util.Set;
+
+/**
+ * Records how many SQL statements each request ran, including those caused by serializing its
+ * response, as the supportdesk.http.queries distribution per method and URI pattern, and holds each
+ * request to supportdesk.sql-budget.per-request statements. A rising count for one endpoint is the
+ * usual sign of an N+1 query. Streaming responses are counted up to the point their body is handed
+ * to another thread.
+ */
+@Component
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+    private static final Logger log = LoggerFactory.getLogger(QueryCountInterceptor.class);
+    private static final String BUDGET_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".budget";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${supportdesk.sql-budget.per-request:100}")
+    private long perRequest;
+
+    // URI patterns whose statement count grows with the request body, such as the bulk imports
+    @Value("${supportdesk.sql-budget.excluded-uris:}")
+    private Set<String> excludedUris;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            String uri = uriOf(request);
+            long limit = excludedUris.contains(uri) ? Long.MAX_VALUE : perRequest;
+            request.setAttribute(BUDGET_ATTRIBUTE, SqlStatementCounter.open(request.getMethod() + " " + uri, limit));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        record(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            record(request);
+        }
+    }
+
+    private void record(HttpServletRequest request) {
+        if (!(request.getAttribute(BUDGET_ATTRIBUTE) instanceof SqlStatementCounter.Budget budget)) {
+            return;
+        }
+        request.removeAttribute(BUDGET_ATTRIBUTE);
+        budget.close();
+        long count = budget.count();
+        if (budget.isExceeded()) {
+            log.warn("{} ran {} SQL statements, over its budget of {}", budget.getName(), count, budget.getLimit());
+        }
+        DistributionSummary.builder("supportdesk.http.queries")
+                .description("SQL statements run by one request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uriOf(request))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(count);
+    }
+
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,62 @@
+package com.supportdesk.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Set;
+
+/**
+ * Counts the SQL statements of every call into the timed services (TicketService, MessageService,
+ * UserService) as the supportdesk.service.queries distribution per class and method, and holds each
+ * call to supportdesk.sql-budget.per-service-call statements. A call from one service into another
+ * counts towards both.
+ */
+@Aspect
+@Component
+public class ServiceQueryCounter {
+    private static final Logger log = LoggerFactory.getLogger(ServiceQueryCounter.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${supportdesk.sql-budget.per-service-call:50}")
+    private long perServiceCall;
+
+    // Class.method names whose statement count grows with their input, such as the bulk updates
+    @Value("${supportdesk.sql-budget.excluded-methods:}")
+    private Set<String> excludedMethods;
+
+    @Around("@within(io.micrometer.core.annotation.Timed) && execution(public * *(..))")
+    public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = joinPoint.getSignature().getDeclaringType();
+        String method = joinPoint.getSignature().getName();
+        String name = type.getSimpleName() + "." + method;
+        long limit = excludedMethods.contains(name) ? Long.MAX_VALUE : perServiceCall;
+
+        SqlStatementCounter.Budget budget = SqlStatementCounter.open(name, limit);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            budget.close();
+            long count = budget.count();
+            if (budget.isExceeded()) {
+                log.warn("{} ran {} SQL statements, over its budget of {}", name, count, limit);
+            }
+            DistributionSummary.builder("supportdesk.service.queries")
+                    .description("SQL statements run by one service call")
+                    .baseUnit("statements")
+                    .tag("class", type.getName())
+                    .tag("method", method)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(count);
+        }
+    }
+}
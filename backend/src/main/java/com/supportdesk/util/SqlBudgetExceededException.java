@@ -0,0 +1,11 @@
+package com.supportdesk.util;
+
+/**
+ * Thrown instead of running a SQL statement that would take a request or service call over its
+ * statement budget, when budgets are enforced (supportdesk.sql-budget.reject=true)
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,94 @@
+package com.supportdesk.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, so a request or service call can tell
+ * how many queries it caused, and checks them against the statement budgets open on that thread.
+ * Over-budget units of work are logged by whoever opened the budget; with supportdesk.sql-budget.reject
+ * set, the statement that crosses a budget fails with SqlBudgetExceededException instead of running.
+ * Registered with Hibernate as its statement inspector (see MetricsConfig); statements pass unchanged.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<Deque<Budget>> BUDGETS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Value("${supportdesk.sql-budget.reject:false}")
+    private boolean reject;
+
+    @Override
+    public String inspect(String sql) {
+        long count = ++COUNT.get()[0];
+        if (reject) {
+            for (Budget budget : BUDGETS.get()) {
+                if (count - budget.start > budget.limit) {
+                    throw new SqlBudgetExceededException(budget.name + " ran more than " + budget.limit
+                            + " SQL statements");
+                }
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Number of statements prepared on this thread so far; the difference between two readings is
+     * the number of statements in between
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Start counting a unit of work on this thread against a limit; close the budget on the same
+     * thread when the work ends. Budgets nest, and every open one is checked
+     */
+    public static Budget open(String name, long limit) {
+        Budget budget = new Budget(name, limit, current());
+        BUDGETS.get().push(budget);
+        return budget;
+    }
+
+    /**
+     * The statements of one unit of work, counted from the moment it was opened
+     */
+    public static final class Budget implements AutoCloseable {
+        private final String name;
+        private final long limit;
+        private final long start;
+
+        private Budget(String name, long limit, long start) {
+            this.name = name;
+            this.limit = limit;
+            this.start = start;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+
+        /**
+         * Statements run since the budget was opened
+         */
+        public long count() {
+            return current() - start;
+        }
+
+        public boolean isExceeded() {
+            return count() > limit;
+        }
+
+        @Override
+        public void close() {
+            BUDGETS.get().removeFirstOccurrence(this);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.supportdesk.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timer wheel holding at most one deadline per key.
+ * Scheduling and cancelling are O(1); advancing costs one slot per elapsed tick plus the timers
+ * that cascade down a level or expire. Deadlines beyond the top level's range are parked in its
+ * farthest slot and re-placed each time they cascade. Not thread-safe; callers synchronize.
+ */
+public class TimerWheel<K> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final Node<K>[][] wheels;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.wheels = new Node[LEVELS][SLOTS];
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedule (or move) the deadline of a key; deadlines already past fire on the next tick
+     */
+    public void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        Node<K> node = new Node<>(key, Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1));
+        nodes.put(key, node);
+        place(node);
+    }
+
+    /**
+     * Remove a key's deadline; returns whether one was scheduled
+     */
+    public boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Advance to the given time and return the keys whose deadlines have passed, earliest tick first
+     */
+    public List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // When a level wraps, pull the next slot of the level above down before expiring
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+            int slot = (int) (currentTick & SLOT_MASK);
+            Node<K> node = wheels[0][slot];
+            wheels[0][slot] = null;
+            while (node != null) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.level = -1;
+                if (node.deadlineTick <= currentTick) {
+                    nodes.remove(node.key);
+                    expired.add(node.key);
+                } else {
+                    place(node);
+                }
+                node = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Number of scheduled deadlines
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    private void cascade(int level, int slot) {
+        Node<K> node = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (node != null) {
+            Node<K> next = node.next;
+            node.prev = null;
+            node.next = null;
+            node.level = -1;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void place(Node<K> node) {
+        long delta = node.deadlineTick - currentTick;
+        long tick = delta > MAX_DELTA ? currentTick + MAX_DELTA : node.deadlineTick;
+        delta = tick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        node.level = level;
+        node.slot = slot;
+        node.next = wheels[level][slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        wheels[level][slot] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.level < 0) {
+            return;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            wheels[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Node<K> {
+        final K key;
+        final long deadlineTick;
+        Node<K> prev;
+        Node<K> next;
+        int level = -1;
+        int slot;
+
+        Node(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+-- Schema as Hibernate created it before migrations were introduced (ddl-auto=update, IDENTITY ids).
+-- Existing databases are baselined at this version and only receive the later migrations.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    role ENUM ('CUSTOMER', 'AGENT', 'ADMIN') NOT NULL,
+    active BIT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE tickets (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    description TEXT NOT NULL,
+    status ENUM ('OPEN', 'IN_PROGRESS', 'RESOLVED', 'CLOSED', 'REOPENED') NOT NULL,
+    priority ENUM ('LOW', 'MEDIUM', 'HIGH', 'URGENT') NOT NULL,
+    customer_id BIGINT NOT NULL,
+    agent_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_tickets_customer FOREIGN KEY (customer_id) REFERENCES users (id),
+    CONSTRAINT fk_tickets_agent FOREIGN KEY (agent_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE messages (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    content TEXT NOT NULL,
+    ticket_id BIGINT NOT NULL,
+    sender_id BIGINT NOT NULL,
+    message_type ENUM ('REPLY', 'STATUS_UPDATE', 'NOTE', 'ASSIGNMENT') NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_messages_ticket FOREIGN KEY (ticket_id) REFERENCES tickets (id),
+    CONSTRAINT fk_messages_sender FOREIGN KEY (sender_id) REFERENCES users (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,12 @@
+-- IDs are allocated by Hibernate in blocks of 50 from a one-row generator table per entity (MySQL has no
+-- sequences). Each generator hands out its first block just past the highest ID already in the table.
+-- AUTO_INCREMENT stays on the ID columns but is no longer used.
+
+CREATE TABLE users_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO users_seq SELECT COALESCE(MAX(id), 0) + 50 FROM users;
+
+CREATE TABLE tickets_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO tickets_seq SELECT COALESCE(MAX(id), 0) + 50 FROM tickets;
+
+CREATE TABLE messages_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO messages_seq SELECT COALESCE(MAX(id), 0) + 50 FROM messages;
@@ -0,0 +1,8 @@
+-- SLA tracking (first agent response, next deadline) and the optimistic-locking version of each ticket
+
+ALTER TABLE tickets ADD COLUMN first_response_at DATETIME(6);
+ALTER TABLE tickets ADD COLUMN sla_due_at DATETIME(6);
+ALTER TABLE tickets ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- SlaTimer: streamSlaDeadlines at startup
+CREATE INDEX idx_tickets_sla_due_at ON tickets (sla_due_at);
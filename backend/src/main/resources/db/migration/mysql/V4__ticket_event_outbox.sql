@@ -0,0 +1,14 @@
+-- Ticket history events waiting to be written as messages by the background consumer
+
+CREATE TABLE ticket_event_outbox (
+    id BIGINT NOT NULL,
+    ticket_id BIGINT NOT NULL,
+    sender_id BIGINT NOT NULL,
+    message_type ENUM ('REPLY', 'STATUS_UPDATE', 'NOTE', 'ASSIGNMENT') NOT NULL,
+    content TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE ticket_event_outbox_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO ticket_event_outbox_seq VALUES (1);
@@ -0,0 +1,16 @@
+-- Commit-ordered thread positions. Each ticket row counts the positions handed out to its messages;
+-- a message takes the next one by incrementing the count in the transaction that inserts it, so
+-- the ticket row lock orders positions by commit and the count doubles as the thread's ETag version.
+ALTER TABLE tickets ADD COLUMN thread_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE messages ADD COLUMN thread_seq BIGINT;
+
+-- Existing messages keep their ID order
+UPDATE messages SET thread_seq = id;
+
+UPDATE tickets SET thread_version = COALESCE((SELECT MAX(m.thread_seq) FROM messages m WHERE m.ticket_id = tickets.id), 0);
+
+ALTER TABLE messages MODIFY thread_seq BIGINT NOT NULL;
+
+-- MessageRepository: findThreadByTicketIdSince
+CREATE UNIQUE INDEX idx_messages_ticket_thread_seq ON messages (ticket_id, thread_seq);
@@ -0,0 +1,43 @@
+-- Schema as Hibernate created it before migrations were introduced (ddl-auto=update, IDENTITY ids).
+-- Existing databases are baselined at this version and only receive the later migrations.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL CHECK (role IN ('CUSTOMER', 'AGENT', 'ADMIN')),
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE tickets (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT NOT NULL,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('OPEN', 'IN_PROGRESS', 'RESOLVED', 'CLOSED', 'REOPENED')),
+    priority VARCHAR(255) NOT NULL CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+    customer_id BIGINT NOT NULL,
+    agent_id BIGINT,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_tickets_customer FOREIGN KEY (customer_id) REFERENCES users (id),
+    CONSTRAINT fk_tickets_agent FOREIGN KEY (agent_id) REFERENCES users (id)
+);
+
+CREATE TABLE messages (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    content TEXT NOT NULL,
+    ticket_id BIGINT NOT NULL,
+    sender_id BIGINT NOT NULL,
+    message_type VARCHAR(255) NOT NULL CHECK (message_type IN ('REPLY', 'STATUS_UPDATE', 'NOTE', 'ASSIGNMENT')),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_messages_ticket FOREIGN KEY (ticket_id) REFERENCES tickets (id),
+    CONSTRAINT fk_messages_sender FOREIGN KEY (sender_id) REFERENCES users (id)
+);
@@ -0,0 +1,12 @@
+-- IDs are allocated by Hibernate in blocks of 50 from a sequence per entity. Each sequence hands out
+-- its first block just past the highest ID already in the table. The identity columns stay but are no
+-- longer used.
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
+
+CREATE SEQUENCE tickets_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tickets_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tickets), false);
+
+CREATE SEQUENCE messages_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('messages_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM messages), false);
@@ -0,0 +1,13 @@
+-- Ticket history events waiting to be written as messages by the background consumer
+
+CREATE SEQUENCE ticket_event_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE ticket_event_outbox (
+    id BIGINT NOT NULL,
+    ticket_id BIGINT NOT NULL,
+    sender_id BIGINT NOT NULL,
+    message_type VARCHAR(255) NOT NULL CHECK (message_type IN ('REPLY', 'STATUS_UPDATE', 'NOTE', 'ASSIGNMENT')),
+    content TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,34 @@
+-- Composite indexes for the repository finders, so each lookup is an index range scan and
+-- ordered reads need no filesort.
+
+-- TicketRepository: findByCustomerId, findByCustomerIdAndStatus, countByCustomerAndStatus,
+-- customer filter of findSummaryPage / streamExportRows
+CREATE INDEX idx_tickets_customer_status ON tickets (customer_id, status);
+
+-- TicketRepository: findByAssignedAgentId, findByAssignedAgentIdAndStatus, findByAssignedAgentIsNull,
+-- countByAssignedAgentIdAndStatusIn, countByAgentAndStatusIn, countByAgentStatusAndPriority (covering)
+CREATE INDEX idx_tickets_agent_status_priority ON tickets (agent_id, status, priority);
+
+-- TicketRepository: findByStatus, status filter of findSummaryPage / streamExportRows
+CREATE INDEX idx_tickets_status_priority ON tickets (status, priority);
+
+-- TicketRepository: findByPriority
+CREATE INDEX idx_tickets_priority ON tickets (priority);
+
+-- TicketRepository: from/to filters of findSummaryPage / streamExportRows
+CREATE INDEX idx_tickets_created_at ON tickets (created_at);
+
+-- MessageRepository: findByTicketId, findThreadByTicketId (ORDER BY created_at, id)
+CREATE INDEX idx_messages_ticket_created ON messages (ticket_id, created_at, id);
+
+-- MessageRepository: findThreadByTicketIdSince, findThreadVersion
+CREATE INDEX idx_messages_ticket_id_id ON messages (ticket_id, id);
+
+-- MessageRepository: findBySenderId
+CREATE INDEX idx_messages_sender ON messages (sender_id);
+
+-- MessageRepository: findByMessageType
+CREATE INDEX idx_messages_type ON messages (message_type);
+
+-- UserRepository: findByRole, findByRoleAndActive (findByEmail uses the unique email constraint)
+CREATE INDEX idx_users_role_active ON users (role, active);
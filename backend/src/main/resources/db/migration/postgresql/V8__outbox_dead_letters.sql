@@ -0,0 +1,11 @@
+-- Failed ticket history events stay in the outbox: attempts counts failed tries, last_error keeps
+-- the latest failure, and failed_at marks an event given up on (a dead letter) until it is reset.
+
+ALTER TABLE ticket_event_outbox ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+
+ALTER TABLE ticket_event_outbox ADD COLUMN last_error VARCHAR(1000);
+
+ALTER TABLE ticket_event_outbox ADD COLUMN failed_at TIMESTAMP(6);
+
+-- OutboxEventRepository: findPendingIds (failed_at IS NULL, ORDER BY id)
+CREATE INDEX idx_outbox_failed_id ON ticket_event_outbox (failed_at, id);
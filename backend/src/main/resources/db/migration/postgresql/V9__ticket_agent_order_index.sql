@@ -0,0 +1,3 @@
+-- TicketRepository: an agent's tickets and the unassigned queue (agent_id IS NULL) of findSummaryPage /
+-- streamExportRows, read in ID order so a page needs no sort of the agent's or the queue's every ticket
+CREATE INDEX idx_tickets_agent_id ON tickets (agent_id, id);
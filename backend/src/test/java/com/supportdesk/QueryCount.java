@@ -0,0 +1,75 @@
+package com.supportdesk;
+
+import com.supportdesk.util.SqlStatementCounter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts the exact number of SQL statements a request runs. MockMvc serves the request on the
+ * calling thread, so SqlStatementCounter's per-thread count covers the whole request, filters and
+ * interceptors included; work handed to other threads (history writer, search index) is not counted.
+ * Sequence calls that allocate a block of ids are left out: they happen once per 50 inserts, on
+ * whichever request finds the block used up. Tests using it import {@link Recording}.
+ */
+public final class QueryCount {
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    private QueryCount() {
+    }
+
+    /**
+     * Perform the request and check that it ran exactly the expected number of statements
+     */
+    public static ResultActions perform(MockMvc mockMvc, long expected, RequestBuilder request) throws Exception {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        try (SqlStatementCounter.Budget budget = SqlStatementCounter.open("expected statements", expected)) {
+            ResultActions result = mockMvc.perform(request);
+            long idAllocations = statements.stream().filter(QueryCount::isIdAllocation).count();
+
+            MockHttpServletRequest sent = result.andReturn().getRequest();
+            assertThat(budget.count() - idAllocations)
+                    .as("SQL statements of %s %s: %s", sent.getMethod(), sent.getRequestURI(), statements)
+                    .isEqualTo(expected);
+            return result;
+        } finally {
+            STATEMENTS.remove();
+        }
+    }
+
+    private static boolean isIdAllocation(String sql) {
+        String statement = sql.toLowerCase(Locale.ROOT);
+        return statement.contains("nextval(") || statement.contains("next value for");
+    }
+
+    /**
+     * Puts a statement counter in the context that also keeps the statements of the request being checked
+     */
+    @TestConfiguration
+    public static class Recording {
+        @Bean
+        @Primary
+        public SqlStatementCounter recordingStatementCounter() {
+            return new SqlStatementCounter() {
+                @Override
+                public String inspect(String sql) {
+                    List<String> statements = STATEMENTS.get();
+                    if (statements != null) {
+                        statements.add(sql);
+                    }
+                    return super.inspect(sql);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.supportdesk;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Records the prepared statements the calling thread runs, with the parameters bound to them, so a
+ * test can replay exactly what a repository call sent, e.g. under EXPLAIN. The statements are seen at
+ * the JDBC level, so Hibernate's rendered SQL and JdbcTemplate batches are both covered. Tests using
+ * it import {@link Recording}, which wraps the context's data source.
+ */
+public final class RecordedStatements {
+    private static final ThreadLocal<List<Statement>> RECORDING = new ThreadLocal<>();
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "addBatch");
+
+    private RecordedStatements() {
+    }
+
+    /**
+     * Run the work and return the statements it ran on this thread, in order
+     */
+    public static List<Statement> record(Runnable work) {
+        List<Statement> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            work.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    /**
+     * One statement as it was sent: its SQL and the setter calls that bound its parameters
+     */
+    public static final class Statement {
+        private final String sql;
+        private final Map<Integer, Binding> parameters;
+
+        private Statement(String sql, Map<Integer, Binding> parameters) {
+            this.sql = sql;
+            this.parameters = new TreeMap<>(parameters);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * Prepare the statement's SQL behind a prefix (such as "EXPLAIN ") and bind the recorded parameters
+         */
+        public PreparedStatement prepare(Connection connection, String prefix) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(prefix + sql);
+            for (Binding binding : parameters.values()) {
+                invoke(binding.setter, statement, binding.args);
+            }
+            return statement;
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+
+    private static final class Binding {
+        private final Method setter;
+        private final Object[] args;
+
+        private Binding(Method setter, Object[] args) {
+            this.setter = setter;
+            this.args = args;
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(RecordedStatements.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(method, connection, args);
+                    if (result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql) {
+                        return recording(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement recording(PreparedStatement statement, String sql) {
+        Map<Integer, Binding> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(RecordedStatements.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, new Binding(method, args));
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (args == null && EXECUTE.contains(name) && RECORDING.get() != null) {
+                        RECORDING.get().add(new Statement(sql, parameters));
+                    }
+                    return invoke(method, statement, args);
+                });
+    }
+
+    /**
+     * Wraps the context's data source so the statements of a {@link #record} call are recorded
+     */
+    @TestConfiguration
+    public static class Recording {
+        @Bean
+        public static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!beanName.equals("dataSource") || !(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return recording(super.getConnection());
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return recording(super.getConnection(username, password));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.supportdesk;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application on a database created the way Hibernate created it before migrations existed,
+ * with data in it: Flyway has to baseline it at V1 and apply the rest, Hibernate has to accept the
+ * result, and new rows must get IDs past the existing ones.
+ */
+@SpringBootTest
+class SchemaMigrationTest {
+    private static final String DATABASE = "pre_migration";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @DynamicPropertySource
+    static void preMigrationDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        DataSource dataSource = TestDatabase.get(DATABASE);
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection,
+                    new ClassPathResource("db/migration/postgresql/V1__baseline_schema.sql"));
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (int i = 1; i <= 120; i++) {
+                jdbc.update("INSERT INTO users (email, password, first_name, last_name, role, active, created_at, updated_at) "
+                        + "VALUES (?, 'x', 'Old', 'User', 'CUSTOMER', true, now(), now())", "old" + i + "@example.com");
+            }
+            jdbc.update("INSERT INTO tickets (title, description, status, priority, customer_id, created_at, updated_at) "
+                    + "VALUES ('Old ticket', 'Created before migrations', 'OPEN', 'LOW', 120, now(), now())");
+        }
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    @Test
+    void baselinesExistingDatabaseAndAppliesLaterMigrations() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        assertThat(versions).startsWith("1", "2", "3", "4", "5", "6");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM tickets WHERE title = 'Old ticket'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void allocatesNewIdsAfterExistingRows() {
+        User customer = new User();
+        customer.setEmail("new-after-migration@example.com");
+        customer.setPassword("x");
+        customer.setFirstName("New");
+        customer.setLastName("User");
+        customer.setRole(User.UserRole.CUSTOMER);
+        customer = userRepository.save(customer);
+
+        Ticket ticket = new Ticket();
+        ticket.setTitle("New ticket");
+        ticket.setDescription("Created after migrations");
+        ticket.setCustomer(customer);
+        ticket = ticketRepository.save(ticket);
+
+        assertThat(customer.getId()).isGreaterThan(120);
+        assertThat(ticket.getId()).isGreaterThan(1);
+    }
+}
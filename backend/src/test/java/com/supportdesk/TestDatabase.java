@@ -0,0 +1,80 @@
+package com.supportdesk;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One embedded PostgreSQL server per test run, shared by every test that needs a real database.
+ * Each caller works in its own named database on that server.
+ */
+public final class TestDatabase {
+    private static EmbeddedPostgres server;
+    private static final Set<String> databases = new HashSet<>();
+
+    private TestDatabase() {
+    }
+
+    /**
+     * The database with the given name, created empty on first use
+     */
+    public static synchronized DataSource get(String name) {
+        if (databases.add(name)) {
+            try (Connection connection = server().getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE " + name);
+            } catch (SQLException e) {
+                throw new RuntimeException("Could not create test database " + name, e);
+            }
+        }
+        return server().getDatabase("postgres", name);
+    }
+
+    /**
+     * Points a Spring Boot test at the database with the given name
+     */
+    public static void register(DynamicPropertyRegistry registry, String name) {
+        properties(name).forEach((key, value) -> registry.add(key, () -> value));
+    }
+
+    /**
+     * Spring datasource properties for the database with the given name, for applications started
+     * outside the test framework (benchmarks, load harnesses)
+     */
+    public static Map<String, Object> properties(String name) {
+        get(name);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", server().getJdbcUrl("postgres", name));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
+        return properties;
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            EmbeddedPostgres started = server;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                }
+            }));
+        }
+        return server;
+    }
+}
@@ -0,0 +1,136 @@
+package com.supportdesk.config;
+
+import com.supportdesk.TestDatabase;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import com.supportdesk.service.TicketService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The application's own meters are recorded for a real request and published at the Prometheus
+ * endpoint, alongside the actuator's repository, Hikari and cache meters.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class MetricsTest {
+    private static final String DATABASE = "metrics";
+    private static final String CUSTOMER_TICKETS = "/tickets/customer/{customerId}";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    private User customer;
+    private Ticket ticket;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    @BeforeEach
+    void customerWithTicket() {
+        customer = userRepository.findByEmail("metrics-customer@example.com").orElseGet(() -> {
+            User user = new User();
+            user.setEmail("metrics-customer@example.com");
+            user.setPassword("x");
+            user.setFirstName("Metrics");
+            user.setLastName("Test");
+            user.setRole(User.UserRole.CUSTOMER);
+            return userRepository.save(user);
+        });
+        Ticket ticket = new Ticket();
+        ticket.setTitle("Metered ticket");
+        ticket.setDescription("Listed to record request meters");
+        ticket.setCustomer(customer);
+        this.ticket = ticketRepository.save(ticket);
+    }
+
+    @Test
+    void requestRecordsStatementsSerializationAndServiceMeters() {
+        ResponseEntity<String> response = restTemplate.getForEntity(CUSTOMER_TICKETS, String.class,
+                customer.getId());
+        assertThat(response.getStatusCode()).as(response.getBody()).isEqualTo(HttpStatus.OK);
+
+        DistributionSummary queries = meterRegistry.find("supportdesk.http.queries")
+                .tags("method", "GET", "uri", CUSTOMER_TICKETS).summary();
+        assertThat(queries).isNotNull();
+        assertThat(queries.count()).isGreaterThanOrEqualTo(1);
+        assertThat(queries.totalAmount()).isGreaterThanOrEqualTo(1);
+
+        Timer serialization = meterRegistry.find("supportdesk.json.serialization").tag("uri", CUSTOMER_TICKETS).timer();
+        assertThat(serialization).isNotNull();
+        assertThat(serialization.count()).isGreaterThanOrEqualTo(1);
+
+        Timer service = meterRegistry.find("supportdesk.service")
+                .tags("class", TicketService.class.getName(), "method", "getTickets").timer();
+        assertThat(service).isNotNull();
+        assertThat(service.count()).isGreaterThanOrEqualTo(1);
+
+        DistributionSummary serviceQueries = meterRegistry.find("supportdesk.service.queries")
+                .tags("class", TicketService.class.getName(), "method", "getTickets").summary();
+        assertThat(serviceQueries).isNotNull();
+        assertThat(serviceQueries.totalAmount()).isGreaterThanOrEqualTo(1);
+
+        Timer repository = meterRegistry.find("spring.data.repository.invocations")
+                .tags("repository", "TicketRepository", "method", "findSummaryPage").timer();
+        assertThat(repository).isNotNull();
+        assertThat(repository.count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void cacheMetersFollowTicketReads() {
+        ticketService.getTicketById(ticket.getId());
+        ticketService.getTicketById(ticket.getId());
+
+        assertThat(meterRegistry.find("cache.gets").tags("cache", "tickets.byId", "result", "hit")
+                .functionCounter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("supportdesk.ticket.cache.weight").gauge().value()).isPositive();
+        assertThat(meterRegistry.find("cache.size").tag("cache", "users.byId").gauge()).isNotNull();
+    }
+
+    @Test
+    void prometheusEndpointPublishesTheMeters() {
+        restTemplate.getForEntity(CUSTOMER_TICKETS, String.class, customer.getId());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("supportdesk_http_queries_statements_bucket")
+                .contains("supportdesk_json_serialization_seconds_bucket")
+                .contains("supportdesk_service_seconds_bucket")
+                .contains("supportdesk_service_queries_statements")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .contains("hikaricp_connections_acquire_seconds")
+                .contains("supportdesk_ticket_cache_weight")
+                .contains("application=\"supportdesk-backend\"");
+    }
+}
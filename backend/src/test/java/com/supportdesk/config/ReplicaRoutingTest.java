@@ -0,0 +1,152 @@
+package com.supportdesk.config;
+
+import com.supportdesk.TestDatabase;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.UserRepository;
+import com.supportdesk.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read routing between a primary and a read replica, each its own embedded database. The replica
+ * is not replicated: both hold the same agent under a different first name, so the name a read
+ * returns tells which database served it. The tests run the heartbeat check themselves.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "supportdesk.datasource.replica.max-lag-ms=2000",
+        "supportdesk.datasource.replica.sticky-ms=1000",
+        "supportdesk.datasource.replica.check-ms=3600000",
+        "supportdesk.datasource.replica.hikari.connection-timeout=1000"})
+class ReplicaRoutingTest {
+    private static final String PRIMARY = "replica_routing_primary";
+    private static final String REPLICA = "replica_routing_replica";
+    private static final long AGENT = 1;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaMonitor replicaMonitor;
+
+    private final JdbcTemplate primary = new JdbcTemplate(TestDatabase.get(PRIMARY));
+    private final JdbcTemplate replica = new JdbcTemplate(TestDatabase.get(REPLICA));
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        for (String database : List.of(PRIMARY, REPLICA)) {
+            DataSource dataSource = TestDatabase.get(database);
+            Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/postgresql").load().migrate();
+            new JdbcTemplate(dataSource).update("INSERT INTO users (id, email, password, first_name, last_name, role, "
+                    + "active, created_at, updated_at) VALUES (?, 'agent@example.com', 'x', ?, 'Agent', 'AGENT', true, "
+                    + "now(), now()) ON CONFLICT (id) DO NOTHING", AGENT, database.equals(PRIMARY) ? "Primary" : "Replica");
+        }
+        TestDatabase.register(registry, PRIMARY);
+        registry.add("supportdesk.datasource.replica.url",
+                () -> TestDatabase.properties(REPLICA).get("spring.datasource.url"));
+    }
+
+    @BeforeEach
+    void replicaCaughtUp() {
+        // A beat from the future reads as one the replica has already seen
+        replica.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", Long.MAX_VALUE);
+        replicaMonitor.check();
+    }
+
+    @AfterEach
+    void replicaUp() {
+        primary.update("ALTER DATABASE " + REPLICA + " ALLOW_CONNECTIONS true");
+    }
+
+    @Test
+    void declaredReadOnlyTransactionsReadFromTheReplica() {
+        long replicaReads = reads("replicaReads");
+
+        assertThat(agentNameAs("10.0.0.1")).isEqualTo("Replica");
+        assertThat(reads("replicaReads")).isEqualTo(replicaReads + 1);
+
+        // Spring Data's own read-only transactions stay on the primary
+        assertThat(userRepository.findByRole(User.UserRole.AGENT)).extracting(User::getFirstName)
+                .containsExactly("Primary");
+    }
+
+    @Test
+    void aCallerReadsItsOwnWritesFromThePrimary() throws InterruptedException {
+        as("10.0.0.2", () -> userService.updateUser(AGENT, "Primary", "Agent"));
+
+        assertThat(agentNameAs("10.0.0.2")).isEqualTo("Primary");
+        assertThat(agentNameAs("10.0.0.3")).isEqualTo("Replica");
+
+        // Past sticky-ms the writer is back on the replica
+        Thread.sleep(1500);
+        assertThat(agentNameAs("10.0.0.2")).isEqualTo("Replica");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        replica.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis() - 60_000);
+        replicaMonitor.check();
+
+        assertThat(replicaMonitor.getStats()).containsEntry("replicaUsable", false);
+        assertThat(agentNameAs("10.0.0.4")).isEqualTo("Primary");
+
+        replicaCaughtUp();
+        assertThat(agentNameAs("10.0.0.4")).isEqualTo("Replica");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsDown() {
+        primary.update("ALTER DATABASE " + REPLICA + " ALLOW_CONNECTIONS false");
+        primary.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE datname = ?", REPLICA);
+        replicaMonitor.check();
+
+        assertThat(replicaMonitor.getStats()).containsEntry("replicaUsable", false).containsEntry("lagMillis", -1L);
+        assertThat(agentNameAs("10.0.0.5")).isEqualTo("Primary");
+
+        replicaUp();
+        replicaMonitor.check();
+        assertThat(agentNameAs("10.0.0.5")).isEqualTo("Replica");
+    }
+
+    // The agent's first name as a declared read-only service transaction of the caller at the address sees it
+    private String agentNameAs(String address) {
+        List<User> agents = as(address, () -> userService.getUsersByRole(User.UserRole.AGENT));
+        assertThat(agents).hasSize(1);
+        return agents.get(0).getFirstName();
+    }
+
+    // Runs the call inside a request from the address, which is how the monitor tells callers apart
+    private static <T> T as(String address, Supplier<T> call) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return call.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private long reads(String side) {
+        Map<String, Object> stats = replicaMonitor.getStats();
+        return (Long) stats.get(side);
+    }
+}
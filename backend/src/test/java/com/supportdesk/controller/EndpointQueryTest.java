@@ -0,0 +1,113 @@
+package com.supportdesk.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportdesk.QueryCount;
+import com.supportdesk.TestDatabase;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import com.supportdesk.service.TicketCache;
+import com.supportdesk.service.UserCache;
+import com.supportdesk.util.JwtTokenProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared setup for the endpoint tests: one application context on one database for every controller,
+ * fixtures with unique emails so tests do not see each other's users, and warm caches so each request
+ * runs the statements of its own code path and no cache misses left over from other tests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(QueryCount.Recording.class)
+abstract class EndpointQueryTest {
+    private static final String DATABASE = "endpoint_queries";
+    private static final AtomicLong users = new AtomicLong();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected TicketRepository ticketRepository;
+
+    @Autowired
+    protected UserCache userCache;
+
+    @Autowired
+    protected TicketCache ticketCache;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    /**
+     * Perform the request and check it ran exactly the expected number of SQL statements
+     */
+    protected ResultActions perform(long expectedStatements, RequestBuilder request) throws Exception {
+        return QueryCount.perform(mockMvc, expectedStatements, request);
+    }
+
+    protected User user(User.UserRole role) {
+        User user = new User();
+        user.setEmail(getClass().getSimpleName() + "-" + users.incrementAndGet() + "@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Endpoint");
+        user.setLastName("Test");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    protected Ticket ticket(User customer) {
+        Ticket ticket = new Ticket();
+        ticket.setTitle("Endpoint ticket");
+        ticket.setDescription("Read and written by the endpoint tests");
+        ticket.setCustomer(customer);
+        return ticketRepository.save(ticket);
+    }
+
+    /**
+     * Load every user and the given tickets into their caches, as a running instance would have them
+     */
+    protected void warmCaches(Ticket... tickets) {
+        userRepository.findAll().forEach(user -> userCache.findById(user.getId()));
+        for (Ticket ticket : tickets) {
+            ticketCache.findById(ticket.getId());
+        }
+    }
+
+    protected MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(user));
+    }
+
+    protected String token(User user) {
+        return jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getRole().toString());
+    }
+
+    protected MockHttpServletRequestBuilder withJson(MockHttpServletRequestBuilder request, Object body)
+            throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+}
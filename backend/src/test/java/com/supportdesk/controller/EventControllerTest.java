@@ -0,0 +1,64 @@
+package com.supportdesk.controller;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Who may open which event stream, and what opening one costs in SQL statements.
+ */
+class EventControllerTest extends EndpointQueryTest {
+    private User customer;
+    private User agent;
+    private Ticket ticket;
+
+    @BeforeEach
+    void ticketWithAgent() {
+        customer = user(User.UserRole.CUSTOMER);
+        agent = user(User.UserRole.AGENT);
+        ticket = ticket(customer);
+        warmCaches(ticket);
+    }
+
+    @Test
+    void streamsNeedAToken() throws Exception {
+        perform(0, stream("/events/ticket/" + ticket.getId())).andExpect(status().isUnauthorized());
+        perform(0, stream("/events/agent/" + agent.getId())).andExpect(status().isUnauthorized());
+        perform(0, stream("/events/ticket/" + ticket.getId()).param("access_token", "not-a-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void customersFollowOnlyTheirOwnTickets() throws Exception {
+        User otherCustomer = user(User.UserRole.CUSTOMER);
+
+        perform(0, stream("/events/ticket/" + ticket.getId()).param("access_token", token(otherCustomer)))
+                .andExpect(status().isForbidden());
+        perform(0, stream("/events/ticket/" + ticket.getId()).param("access_token", token(customer)))
+                .andExpect(request().asyncStarted());
+        perform(0, stream("/events/ticket/" + ticket.getId()).param("access_token", token(agent)))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void agentsFollowOnlyTheirOwnQueue() throws Exception {
+        User otherAgent = user(User.UserRole.AGENT);
+
+        perform(0, as(otherAgent, stream("/events/agent/" + agent.getId()))).andExpect(status().isForbidden());
+        perform(0, stream("/events/agent/" + customer.getId()).param("access_token", token(customer)))
+                .andExpect(status().isForbidden());
+        perform(0, stream("/events/agent/" + agent.getId()).param("access_token", token(agent)))
+                .andExpect(request().asyncStarted());
+    }
+
+    // The servlet path is where the token filter looks for event streams; MockMvc leaves it empty
+    private static MockHttpServletRequestBuilder stream(String path) {
+        return get(path).servletPath(path);
+    }
+}
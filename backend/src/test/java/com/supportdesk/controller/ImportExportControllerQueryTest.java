@@ -0,0 +1,124 @@
+package com.supportdesk.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.service.MessageService;
+import com.supportdesk.service.SlaTimer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts for the export and import endpoints; exports stream from one query
+ * whatever their size, and imports write in chunks.
+ */
+class ImportExportControllerQueryTest extends EndpointQueryTest {
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private SlaTimer slaTimer;
+
+    private User customer;
+    private User agent;
+    private Ticket ticket;
+
+    @BeforeEach
+    void ticketWithThread() {
+        customer = user(User.UserRole.CUSTOMER);
+        agent = user(User.UserRole.AGENT);
+        ticket = ticket(customer);
+        ticket(customer);
+        warmCaches(ticket);
+        messageService.addReply(ticket.getId(), customer.getId(), "Question");
+        messageService.addReply(ticket.getId(), agent.getId(), "Answer");
+    }
+
+    @Test
+    void exports() throws Exception {
+        String csv = perform(1, get("/export/tickets").param("customerId", customer.getId().toString()))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(csv.lines()).hasSize(3);
+
+        perform(1, get("/export/tickets").param("customerId", customer.getId().toString())
+                .param("format", "ndjson").param("gzip", "true")).andExpect(status().isOk());
+        perform(1, get("/export/messages").param("ticketId", ticket.getId().toString()).param("format", "ndjson"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void jsonImports() throws Exception {
+        List<Map<String, Object>> tickets = List.of(
+                Map.of("title", "Imported one", "description", "From the old system", "status", "CLOSED",
+                        "priority", "LOW", "customerId", customer.getId(), "agentId", agent.getId()),
+                Map.of("title", "Imported two", "description", "From the old system", "status", "OPEN",
+                        "priority", "HIGH", "customerId", customer.getId()));
+        int deadlines = slaTimer.size();
+        perform(1, withJson(post("/import/tickets"), tickets))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(2));
+
+        // Only the open ticket gets a deadline, and the wheel picks it up
+        assertThat(imported("Imported one").getSlaDueAt()).isNull();
+        Ticket open = imported("Imported two");
+        assertThat(open.getSlaDueAt()).isEqualTo(open.getCreatedAt().plusMinutes(120));
+        assertThat(slaTimer.size()).isEqualTo(deadlines + 1);
+
+        List<Map<String, Object>> messages = List.of(
+                Map.of("ticketId", ticket.getId(), "senderId", customer.getId(), "content", "Old question"),
+                Map.of("ticketId", ticket.getId(), "senderId", agent.getId(), "content", "Old answer"));
+        perform(4, withJson(post("/import/messages"), messages))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void ndjsonImports() throws Exception {
+        String tickets = line(Map.of("title", "Streamed", "description", "One per line", "customerId", customer.getId()))
+                + line(Map.of("title", "Streamed too", "description", "One per line", "customerId", customer.getId()));
+        String ticketProgress = perform(1, post("/import/tickets")
+                .contentType(MediaType.valueOf(ImportController.NDJSON)).content(tickets))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(ticketProgress).contains("\"imported\":2").doesNotContain("\"error\"");
+
+        String messages = line(Map.of("ticketId", ticket.getId(), "senderId", agent.getId(),
+                "content", "Streamed answer"));
+        String messageProgress = perform(4, post("/import/messages")
+                .contentType(MediaType.valueOf(ImportController.NDJSON)).content(messages))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(messageProgress).contains("\"imported\":1").doesNotContain("\"error\"");
+    }
+
+    @Test
+    void ndjsonRejectsAnOverlongLineAndImportsTheRest() throws Exception {
+        String tickets = line(Map.of("title", "Oversized", "description", "x".repeat(1_100_000),
+                "customerId", customer.getId()))
+                + "\r\n"
+                + line(Map.of("title", "After the oversized one", "description", "Still imported",
+                "customerId", customer.getId()));
+        String progress = perform(1, post("/import/tickets")
+                .contentType(MediaType.valueOf(ImportController.NDJSON)).content(tickets))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        assertThat(progress).contains("\"imported\":1").contains("\"failed\":1")
+                .contains("\"line\":1,\"error\":\"Line longer than 1048576 characters\"");
+        imported("After the oversized one");
+    }
+
+    private Ticket imported(String title) {
+        return ticketRepository.findAll().stream().filter(ticket -> ticket.getTitle().equals(title))
+                .reduce((first, last) -> last).orElseThrow();
+    }
+
+    private String line(Object record) throws Exception {
+        return objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(record) + "\n";
+    }
+}
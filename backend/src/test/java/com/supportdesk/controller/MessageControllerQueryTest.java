@@ -0,0 +1,102 @@
+package com.supportdesk.controller;
+
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.service.MessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts for every message endpoint.
+ */
+class MessageControllerQueryTest extends EndpointQueryTest {
+    @Autowired
+    private MessageService messageService;
+
+    private User customer;
+    private User agent;
+    private Ticket ticket;
+
+    @BeforeEach
+    void ticketWithAgent() {
+        customer = user(User.UserRole.CUSTOMER);
+        agent = user(User.UserRole.AGENT);
+        ticket = ticket(customer);
+        warmCaches(ticket);
+    }
+
+    @Test
+    void replies() throws Exception {
+        // A customer's reply is appended to the thread
+        perform(3, withJson(post("/messages/reply"), Map.of("ticketId", ticket.getId(),
+                "senderId", customer.getId(), "content", "It still does not work")))
+                .andExpect(status().isCreated());
+        // The first agent reply also records the first response on the ticket
+        perform(4, withJson(post("/messages/reply"), Map.of("ticketId", ticket.getId(),
+                "senderId", agent.getId(), "content", "Have you tried turning it off and on again?")))
+                .andExpect(status().isCreated());
+        perform(3, withJson(as(agent, post("/messages/reply")), Map.of("ticketId", ticket.getId(),
+                "content", "Sender taken from the token")))
+                .andExpect(status().isCreated()).andExpect(jsonPath("$.senderId").value(agent.getId()));
+    }
+
+    @Test
+    void addAndDeleteNote() throws Exception {
+        perform(3, withJson(post("/messages/note"), Map.of("ticketId", ticket.getId(),
+                "senderId", agent.getId(), "content", "Customer sounds upset")))
+                .andExpect(status().isCreated());
+        Message note = messageService.getUserMessages(agent.getId()).get(0);
+
+        perform(3, delete("/messages/{id}", note.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void customerCannotPostAsAnAgent() throws Exception {
+        perform(0, withJson(as(customer, post("/messages/note")), Map.of("ticketId", ticket.getId(),
+                "senderId", agent.getId(), "content", "Looks like a note from the agent")))
+                .andExpect(status().isForbidden());
+        perform(0, withJson(as(customer, post("/messages/reply")), Map.of("ticketId", ticket.getId(),
+                "senderId", agent.getId(), "content", "Looks like a reply from the agent")))
+                .andExpect(status().isForbidden());
+        // Without a sender in the body the note is checked against the token's own user
+        perform(0, withJson(as(customer, post("/messages/note")), Map.of("ticketId", ticket.getId(),
+                "content", "Still not an agent")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void thread() throws Exception {
+        messageService.addReply(ticket.getId(), customer.getId(), "First");
+        Message second = messageService.addReply(ticket.getId(), customer.getId(), "Second");
+
+        String etag = perform(2, get("/messages/ticket/{ticketId}", ticket.getId()))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(1, get("/messages/ticket/{ticketId}", ticket.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        perform(2, get("/messages/ticket/{ticketId}", ticket.getId())
+                .param("since", String.valueOf(second.getThreadSeq() - 1)))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void messagesByUserAndId() throws Exception {
+        Message reply = messageService.addReply(ticket.getId(), customer.getId(), "Hello");
+
+        perform(1, get("/messages/user/{userId}", customer.getId())).andExpect(status().isOk());
+        perform(1, get("/messages/{id}", reply.getId())).andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(reply.getId()));
+    }
+}
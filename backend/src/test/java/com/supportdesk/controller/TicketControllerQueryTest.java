@@ -0,0 +1,168 @@
+package com.supportdesk.controller;
+
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.service.TicketSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts for every ticket endpoint, the refusal of a userId that is not the
+ * token's user on the status and priority updates, and cached tickets whose customer was deleted elsewhere.
+ */
+class TicketControllerQueryTest extends EndpointQueryTest {
+    @Autowired
+    private TicketSearchIndex ticketSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User customer;
+    private User agent;
+    private Ticket ticket;
+
+    @BeforeEach
+    void customerWithTicket() {
+        customer = user(User.UserRole.CUSTOMER);
+        agent = user(User.UserRole.AGENT);
+        ticket = ticket(customer);
+        warmCaches(ticket);
+    }
+
+    @Test
+    void createTicket() throws Exception {
+        perform(1, withJson(post("/tickets"), Map.of("customerId", customer.getId(),
+                "title", "Printer on fire", "description", "Smoke everywhere", "priority", "HIGH")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void listings() throws Exception {
+        perform(1, get("/tickets/customer/{customerId}", customer.getId())).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(ticket.getId()));
+        perform(1, get("/tickets/agent/{agentId}", agent.getId()).param("status", "OPEN"))
+                .andExpect(status().isOk());
+        perform(1, get("/tickets/unassigned").param("limit", "10")).andExpect(status().isOk());
+        perform(1, get("/tickets").param("customerId", customer.getId().toString())
+                .param("from", "2020-01-01T00:00:00")).andExpect(status().isOk());
+    }
+
+    @Test
+    void ticketById() throws Exception {
+        perform(0, get("/tickets/{id}", ticket.getId())).andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(ticket.getId()));
+    }
+
+    @Test
+    void ticketWhoseCustomerIsGoneIsReadAgain() throws Exception {
+        // Elsewhere, the ticket moves to another customer and its old customer is deleted
+        User other = user(User.UserRole.CUSTOMER);
+        userCache.findById(other.getId());
+        jdbcTemplate.update("UPDATE tickets SET customer_id = ? WHERE id = ?", other.getId(), ticket.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", customer.getId());
+        userCache.invalidate(customer);
+
+        perform(2, get("/tickets/{id}", ticket.getId())).andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.id").value(other.getId()));
+        perform(0, get("/tickets/{id}", ticket.getId())).andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.id").value(other.getId()));
+    }
+
+    @Test
+    void ticketDeletedWithItsCustomerIsNotFound() throws Exception {
+        jdbcTemplate.update("DELETE FROM tickets WHERE id = ?", ticket.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", customer.getId());
+        userCache.invalidate(customer);
+
+        perform(2, get("/tickets/{id}", ticket.getId())).andExpect(status().isNotFound());
+        assertThat(ticketCache.findById(ticket.getId())).isEmpty();
+    }
+
+    @Test
+    void search() throws Exception {
+        ticket.setTitle("Flux capacitor " + ticket.getId());
+        ticketSearchIndex.onTicketSaved(ticket);
+
+        perform(0, get("/tickets/search").param("q", "capacitor")).andExpect(status().isOk());
+    }
+
+    @Test
+    void statistics() throws Exception {
+        perform(0, get("/tickets/stats")).andExpect(status().isOk());
+        perform(0, get("/tickets/routing/stats")).andExpect(status().isOk());
+        perform(0, get("/tickets/cache/stats")).andExpect(status().isOk());
+        perform(0, get("/tickets/stats/agent/{agentId}", agent.getId())).andExpect(status().isOk());
+        perform(0, get("/tickets/stats/customer/{customerId}", customer.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void updateStatusAndPriority() throws Exception {
+        perform(2, withJson(as(agent, patch("/tickets/{id}/status", ticket.getId())),
+                Map.of("status", "IN_PROGRESS", "userId", agent.getId())))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+        perform(2, withJson(as(agent, patch("/tickets/{id}/priority", ticket.getId())),
+                Map.of("priority", "URGENT", "userId", agent.getId())))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.priority").value("URGENT"));
+        // Setting the current value again writes nothing
+        perform(0, withJson(as(agent, patch("/tickets/{id}/priority", ticket.getId())),
+                Map.of("priority", "URGENT", "userId", agent.getId()))).andExpect(status().isOk());
+    }
+
+    @Test
+    void assignAndUnassign() throws Exception {
+        perform(2, withJson(patch("/tickets/{id}/assign", ticket.getId()),
+                Map.of("agentId", agent.getId().toString())))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.assignedAgent.id").value(agent.getId()));
+        perform(2, patch("/tickets/{id}/unassign", ticket.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void bulkUpdates() throws Exception {
+        Ticket second = ticket(user(User.UserRole.CUSTOMER));
+        warmCaches(second);
+        List<Long> ids = List.of(ticket.getId(), second.getId());
+
+        perform(3, withJson(as(agent, patch("/tickets/bulk/status")),
+                Map.of("ticketIds", ids, "status", "IN_PROGRESS", "userId", agent.getId())))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.updated").value(2));
+        perform(3, withJson(as(agent, patch("/tickets/bulk/priority")),
+                Map.of("ticketIds", ids, "priority", "LOW", "userId", agent.getId())))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.updated").value(2));
+        perform(3, withJson(patch("/tickets/bulk/assign"), Map.of("ticketIds", ids, "agentId", agent.getId())))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.updated").value(2));
+        perform(3, withJson(patch("/tickets/bulk/unassign"), Map.of("ticketIds", ids)))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.updated").value(2));
+    }
+
+    @Test
+    void userIdOtherThanTheTokenUserIsRefused() throws Exception {
+        User other = user(User.UserRole.AGENT);
+        List<Long> ids = List.of(ticket.getId());
+
+        perform(0, withJson(as(agent, patch("/tickets/{id}/status", ticket.getId())),
+                Map.of("status", "CLOSED", "userId", other.getId()))).andExpect(status().isForbidden());
+        perform(0, withJson(as(agent, patch("/tickets/{id}/priority", ticket.getId())),
+                Map.of("priority", "URGENT", "userId", other.getId()))).andExpect(status().isForbidden());
+        perform(0, withJson(as(agent, patch("/tickets/bulk/status")),
+                Map.of("ticketIds", ids, "status", "CLOSED", "userId", other.getId())))
+                .andExpect(status().isForbidden());
+        perform(0, withJson(as(agent, patch("/tickets/bulk/priority")),
+                Map.of("ticketIds", ids, "priority", "URGENT", "userId", other.getId())))
+                .andExpect(status().isForbidden());
+
+        Ticket stored = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(Ticket.TicketStatus.OPEN);
+        assertThat(stored.getVersion()).isEqualTo(ticket.getVersion());
+    }
+}
@@ -0,0 +1,55 @@
+package com.supportdesk.controller;
+
+import com.supportdesk.model.User;
+import com.supportdesk.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement counts for every user endpoint.
+ */
+class UserControllerQueryTest extends EndpointQueryTest {
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void registerAndLogin() throws Exception {
+        perform(2, withJson(post("/users/register"), Map.of("email", "registered-agent@example.com",
+                "password", "secret", "firstName", "New", "lastName", "Agent", "role", "agent")))
+                .andExpect(status().isCreated());
+        perform(1, withJson(post("/users/login"), Map.of("email", "registered-agent@example.com",
+                "password", "secret"))).andExpect(status().isOk()).andExpect(jsonPath("$.token").exists());
+        perform(0, withJson(post("/users/login"), Map.of("email", "registered-agent@example.com",
+                "password", "wrong"))).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void readUsers() throws Exception {
+        User customer = user(User.UserRole.CUSTOMER);
+        warmCaches();
+
+        perform(0, get("/users/{id}", customer.getId())).andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(customer.getEmail()));
+        perform(1, get("/users/agents")).andExpect(status().isOk());
+        perform(0, get("/users/cache/stats")).andExpect(status().isOk());
+    }
+
+    @Test
+    void updateAndDeactivate() throws Exception {
+        User agent = user(User.UserRole.AGENT);
+        userService.activateUser(agent.getId());
+        warmCaches();
+
+        perform(3, withJson(put("/users/{id}", agent.getId()), Map.of("firstName", "Renamed", "lastName", "Agent")))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.firstName").value("Renamed"));
+        perform(3, delete("/users/{id}", agent.getId())).andExpect(status().isOk());
+    }
+}
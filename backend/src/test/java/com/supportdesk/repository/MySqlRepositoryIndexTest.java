@@ -0,0 +1,186 @@
+package com.supportdesk.repository;
+
+import com.supportdesk.RecordedStatements;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finder plans on MySQL, from the rows of EXPLAIN: a table read with type ALL, an index read whole
+ * (type index) or a filesort of more than a page of rows fails the finder. Runs only against a database
+ * given on the command line, which it empties, migrates and fills with its own rows:
+ * mvn test -Dtest=MySqlRepositoryIndexTest -Dsupportdesk.test.mysql.url=jdbc:mysql://localhost:3306/supportdesk_test
+ * (with -Dsupportdesk.test.mysql.username and -Dsupportdesk.test.mysql.password, root and empty by default).
+ */
+@EnabledIfSystemProperty(named = "supportdesk.test.mysql.url", matches = ".+")
+class MySqlRepositoryIndexTest extends RepositoryIndexTest {
+    private static final Pattern ROW = Pattern.compile(
+            "type=(\\S+) key=(\\S+) \\(([^)]*)\\) ref=(\\S+) rows=(\\d+) extra=(.*)");
+
+    // Index name to its columns in order, read once from the schema
+    private Map<String, List<String>> keys;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("supportdesk.test.mysql.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("supportdesk.test.mysql.username", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("supportdesk.test.mysql.password", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registry.add("spring.flyway.clean-disabled", () -> "false");
+    }
+
+    /**
+     * Drops what an earlier run left in the database before migrating it, so its outbox backlog is not
+     * consumed while the seed replaces the rows
+     */
+    @TestConfiguration
+    static class CleanDatabase {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Override
+    void seed(JdbcTemplate jdbc) {
+        jdbc.execute("CREATE TABLE seed_numbers (g INT NOT NULL, PRIMARY KEY (g)) ENGINE = InnoDB");
+        String digits = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 "
+                + "UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+        jdbc.execute("INSERT INTO seed_numbers SELECT 1 + a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d FROM "
+                + digits + " a, " + digits + " b, " + digits + " c, " + digits + " e, " + digits + " f");
+
+        // The same spread as PostgresRepositoryIndexTest
+        jdbc.execute("INSERT INTO users (id, email, password, first_name, last_name, role, active, created_at, updated_at) "
+                + "SELECT g, CONCAT('user', g, '@example.com'), 'x', 'First', 'Last', "
+                + "CASE WHEN g % 1000 = 0 THEN 'AGENT' ELSE 'CUSTOMER' END, g % 10 <> 7, NOW(6), NOW(6) "
+                + "FROM seed_numbers WHERE g <= 20000");
+        jdbc.execute("INSERT INTO tickets (id, title, description, status, priority, customer_id, agent_id, "
+                + "created_at, updated_at, sla_due_at) SELECT g, CONCAT('Ticket ', g), CONCAT('Description ', g), status, "
+                + "CASE WHEN g * 7 % 100 < 40 THEN 'LOW' WHEN g * 7 % 100 < 75 THEN 'MEDIUM' "
+                + "WHEN g * 7 % 100 < 93 THEN 'HIGH' ELSE 'URGENT' END, 1 + g * 13 % 20000, "
+                + "CASE WHEN status = 'OPEN' AND g % 2 = 0 THEN NULL ELSE 1000 * (1 + g % 20) END, "
+                + "NOW(6) - INTERVAL (20000 - g) * 10 MINUTE, NOW(6), "
+                + "CASE WHEN status IN ('OPEN', 'IN_PROGRESS', 'REOPENED') THEN NOW(6) + INTERVAL g % 100 HOUR END "
+                + "FROM (SELECT g, CASE WHEN g % 100 < 70 THEN 'CLOSED' WHEN g % 100 < 85 THEN 'RESOLVED' "
+                + "WHEN g % 100 < 93 THEN 'IN_PROGRESS' WHEN g % 100 < 98 THEN 'OPEN' ELSE 'REOPENED' END AS status "
+                + "FROM seed_numbers WHERE g <= 20000) s");
+        jdbc.execute("INSERT INTO messages (id, content, ticket_id, sender_id, message_type, created_at, thread_seq) "
+                + "SELECT g, CONCAT('Message ', g), 1 + g % 20000, 1 + g % 20000, CASE WHEN g % 20 = 0 THEN 'NOTE' "
+                + "WHEN g % 20 < 3 THEN 'ASSIGNMENT' WHEN g % 20 < 8 THEN 'STATUS_UPDATE' ELSE 'REPLY' END, "
+                + "NOW(6) - INTERVAL (100000 - g) * 2 MINUTE, g FROM seed_numbers");
+        jdbc.execute("INSERT INTO ticket_event_outbox (id, ticket_id, sender_id, message_type, content, created_at, "
+                + "attempts, last_error, failed_at) SELECT g, 1 + g % 20000, 1000, 'STATUS_UPDATE', CONCAT('Event ', g), "
+                + "NOW(6), CASE WHEN g % 100 = 0 THEN 5 ELSE 0 END, CASE WHEN g % 100 = 0 THEN 'Failed' END, "
+                + "CASE WHEN g % 100 = 0 THEN NOW(6) END FROM seed_numbers WHERE g <= 20000");
+        jdbc.execute("DROP TABLE seed_numbers");
+
+        for (String table : List.of("users", "tickets", "messages", "ticket_event_outbox")) {
+            jdbc.execute("UPDATE " + table + "_seq SET next_val = 200000");
+        }
+        jdbc.execute("ANALYZE TABLE users, tickets, messages, ticket_event_outbox");
+    }
+
+    @Override
+    String explain(Connection connection, RecordedStatements.Statement recorded) throws SQLException {
+        if (keys == null) {
+            keys = keys(connection);
+        }
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = recorded.prepare(connection, "EXPLAIN ");
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                // An insert reads no rows, and the ID generator tables hold a single one
+                String table = rows.getString("table");
+                if ("INSERT".equals(rows.getString("select_type")) || table != null && table.endsWith("_seq")) {
+                    continue;
+                }
+                String key = rows.getString("key");
+                List<String> columns = new ArrayList<>();
+                if (key != null) {
+                    for (String name : key.split(",")) {
+                        columns.addAll(keys.getOrDefault(name, List.of()));
+                    }
+                }
+                plan.append(table).append(": type=").append(rows.getString("type"))
+                        .append(" key=").append(key).append(" (").append(String.join(",", columns))
+                        .append(") ref=").append(rows.getString("ref")).append(" rows=").append(rows.getLong("rows"))
+                        .append(" extra=").append(rows.getString("Extra")).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    @Override
+    List<String> check(Finder finder, String plan, Set<String> indexed) {
+        List<String> problems = new ArrayList<>();
+        for (String line : plan.split("\n")) {
+            Matcher row = ROW.matcher(line);
+            if (!row.find()) {
+                continue;
+            }
+            String type = row.group(1);
+            List<String> columns = List.of(row.group(3).split(","));
+            String ref = row.group(4);
+            long rows = Long.parseLong(row.group(5));
+            String extra = row.group(6);
+
+            if (type.equals("ALL") && finder.access != Access.FULL) {
+                problems.add("reads the whole table: " + line);
+            }
+            if (type.equals("index") && finder.access == Access.INDEXED) {
+                problems.add("reads the whole index: " + line);
+            }
+            if (extra.contains("Using filesort") && !finder.maySort(rows)) {
+                problems.add("sorts: " + line);
+            }
+
+            if (extra.contains("Select tables optimized away")) {
+                // Answered from the ends of an index (MIN/MAX) without reading rows
+                indexed.addAll(finder.columns);
+            } else if (Set.of("const", "eq_ref", "ref", "ref_or_null").contains(type)) {
+                // A lookup matches one key part per value in ref
+                indexed.addAll(columns.subList(0, Math.min(columns.size(), ref.split(",").length)));
+            } else if (Set.of("range", "index_merge").contains(type)) {
+                // The rows of EXPLAIN do not say how many key parts a range uses, so it counts every one
+                indexed.addAll(columns);
+            }
+        }
+        return problems;
+    }
+
+    private static Map<String, List<String>> keys(Connection connection) throws SQLException {
+        Map<String, List<String>> keys = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS "
+                     + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME <> 'flyway_schema_history' "
+                     + "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX")) {
+            while (rows.next()) {
+                // PRIMARY is the id of every table, so its name stands for all of them
+                List<String> columns = keys.computeIfAbsent(rows.getString(1), name -> new ArrayList<>());
+                if (!columns.contains(rows.getString(2))) {
+                    columns.add(rows.getString(2));
+                }
+            }
+        }
+        return keys;
+    }
+}
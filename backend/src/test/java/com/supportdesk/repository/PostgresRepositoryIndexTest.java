@@ -0,0 +1,127 @@
+package com.supportdesk.repository;
+
+import com.supportdesk.RecordedStatements;
+import com.supportdesk.TestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finder plans on PostgreSQL, read from EXPLAIN's text output with sequential scans left enabled, so
+ * a scan shows up wherever the planner finds it cheaper than the indexes. Parameters are bound as
+ * they were sent and planned as constants (a custom plan), which is how the driver's unnamed
+ * statements run them.
+ */
+class PostgresRepositoryIndexTest extends RepositoryIndexTest {
+    private static final Pattern SCAN = Pattern.compile(
+            "(Parallel )?(Seq Scan|Index Scan|Index Only Scan|Bitmap Heap Scan|Bitmap Index Scan)( Backward)? .*on (\\S+)");
+    private static final Pattern SORT = Pattern.compile("^(->)?\\s*(Incremental )?Sort .*rows=(\\d+)");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, "repository_index");
+    }
+
+    @Override
+    void seed(JdbcTemplate jdbc) {
+        // 20 agents among the customers (every thousandth user), one in ten users inactive
+        jdbc.execute("INSERT INTO users SELECT g, 'user' || g || '@example.com', 'x', 'First', 'Last', "
+                + "CASE WHEN g % 1000 = 0 THEN 'AGENT' ELSE 'CUSTOMER' END, g % 10 <> 7, now(), now() "
+                + "FROM generate_series(1, 20000) g");
+        // Created in ID order, mostly closed; open tickets have a deadline and half of them no agent yet
+        jdbc.execute("INSERT INTO tickets (id, title, description, status, priority, customer_id, agent_id, "
+                + "created_at, updated_at, sla_due_at) SELECT g, 'Ticket ' || g, 'Description ' || g, s.status, "
+                + "CASE WHEN g * 7 % 100 < 40 THEN 'LOW' WHEN g * 7 % 100 < 75 THEN 'MEDIUM' "
+                + "WHEN g * 7 % 100 < 93 THEN 'HIGH' ELSE 'URGENT' END, 1 + g * 13 % 20000, "
+                + "CASE WHEN s.status = 'OPEN' AND g % 2 = 0 THEN NULL ELSE 1000 * (1 + g % 20) END, "
+                + "now() - (20000 - g) * interval '10 minutes', now(), "
+                + "CASE WHEN s.status IN ('OPEN', 'IN_PROGRESS', 'REOPENED') THEN now() + g % 100 * interval '1 hour' END "
+                + "FROM generate_series(1, 20000) g, LATERAL (SELECT CASE WHEN g % 100 < 70 THEN 'CLOSED' "
+                + "WHEN g % 100 < 85 THEN 'RESOLVED' WHEN g % 100 < 93 THEN 'IN_PROGRESS' "
+                + "WHEN g % 100 < 98 THEN 'OPEN' ELSE 'REOPENED' END AS status) s");
+        // Mostly replies, few internal notes
+        jdbc.execute("INSERT INTO messages (id, content, ticket_id, sender_id, message_type, created_at, thread_seq) "
+                + "SELECT g, 'Message ' || g, 1 + g % 20000, 1 + g % 20000, CASE WHEN g % 20 = 0 THEN 'NOTE' "
+                + "WHEN g % 20 < 3 THEN 'ASSIGNMENT' WHEN g % 20 < 8 THEN 'STATUS_UPDATE' ELSE 'REPLY' END, "
+                + "now() - (100000 - g) * interval '2 minutes', g FROM generate_series(1, 100000) g");
+        // A backlog of history events, one in a hundred of them a dead letter
+        jdbc.execute("INSERT INTO ticket_event_outbox (id, ticket_id, sender_id, message_type, content, created_at, "
+                + "attempts, last_error, failed_at) SELECT g, 1 + g % 20000, 1000, 'STATUS_UPDATE', 'Event ' || g, now(), "
+                + "CASE WHEN g % 100 = 0 THEN 5 ELSE 0 END, CASE WHEN g % 100 = 0 THEN 'Failed' END, "
+                + "CASE WHEN g % 100 = 0 THEN now() END FROM generate_series(1, 20000) g");
+        for (String table : List.of("users", "tickets", "messages", "ticket_event_outbox")) {
+            jdbc.execute("SELECT setval('" + table + "_seq', 200000)");
+        }
+        jdbc.execute("ANALYZE");
+    }
+
+    @Override
+    String explain(Connection connection, RecordedStatements.Statement recorded) throws SQLException {
+        try (Statement settings = connection.createStatement()) {
+            settings.execute("SET plan_cache_mode = force_custom_plan");
+        }
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = recorded.prepare(connection, "EXPLAIN ");
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    @Override
+    List<String> check(Finder finder, String plan, Set<String> indexed) {
+        List<String> problems = new ArrayList<>();
+        String[] lines = plan.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            Matcher sort = SORT.matcher(line);
+            if (sort.find() && !finder.maySort(Long.parseLong(sort.group(3)))) {
+                problems.add("sorts: " + line);
+            }
+            Matcher scan = SCAN.matcher(line);
+            if (!scan.find()) {
+                continue;
+            }
+
+            // The node's own conditions are the lines up to the next node
+            String indexCond = null;
+            for (int j = i + 1; j < lines.length && !lines[j].contains("->"); j++) {
+                if (lines[j].trim().startsWith("Index Cond:")) {
+                    indexCond = lines[j].trim();
+                }
+            }
+
+            String type = scan.group(2);
+            if (type.equals("Seq Scan") && finder.access != Access.FULL) {
+                problems.add("reads the whole table: " + line);
+            }
+            if ((type.equals("Index Scan") || type.equals("Index Only Scan")) && indexCond == null
+                    && finder.access == Access.INDEXED) {
+                problems.add("reads the whole index: " + line);
+            }
+            for (String column : finder.columns) {
+                if (indexCond != null && mentions(indexCond, column)) {
+                    indexed.add(column);
+                }
+            }
+        }
+        return problems;
+    }
+
+    // The scanned relation's own column, not one of another relation in a join condition
+    private static boolean mentions(String condition, String column) {
+        return Pattern.compile("(?<![.\\w])" + column + "\\b").matcher(condition).find();
+    }
+}
@@ -0,0 +1,255 @@
+package com.supportdesk.repository;
+
+import com.supportdesk.RecordedStatements;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository finder (and the bulk update's JDBC batch) against a seeded database, records
+ * the statements it actually sent with their parameters, and EXPLAINs each of them. A finder fails if
+ * its plan reads a whole table or a whole index, if the columns it filters on are not matched by an
+ * index condition, or if it sorts more than a page of rows. Only finders declared to read everything
+ * (the dashboard GROUP BYs) may scan, top-N reads in index order may walk an index until their page
+ * is full, and only finders filtering on a range of one column while ordering by another may sort
+ * larger sets. Each database reads its plans its own way, see the subclasses.
+ */
+// The seeded outbox backlog stays put; only the bulk update's own events are written as history
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "supportdesk.history.sweep-ms=3600000")
+@Import(RecordedStatements.Recording.class)
+abstract class RepositoryIndexTest {
+    private static final Set<Class<?>> seeded = new HashSet<>();
+
+    static final long TICKET = 4242;
+    static final long AGENT = 1000;
+    static final long CUSTOMER = 123;
+    static final List<Long> TICKETS = List.of(5L, 500L, 5000L);
+
+    // Rows a sort may take without an index providing the order: a page and then some
+    static final long SORTED_ROWS = 100;
+
+    @Autowired
+    TicketRepository ticketRepository;
+
+    @Autowired
+    MessageRepository messageRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TicketService ticketService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    /**
+     * How a finder may read its tables
+     */
+    enum Access {
+        // Every table read through an index condition, and each of the finder's columns in one
+        INDEXED,
+        // A top-N read in index order: walking an index until the page is full is fine, a table scan is not
+        ORDERED,
+        // Reads every row on purpose
+        FULL
+    }
+
+    /**
+     * A repository call and what its plans must show
+     */
+    static final class Finder {
+        final Access access;
+        final boolean sorts;
+        final Set<String> columns;
+        final Consumer<RepositoryIndexTest> call;
+
+        private Finder(Access access, boolean sorts, Consumer<RepositoryIndexTest> call, String... columns) {
+            this.access = access;
+            this.sorts = sorts;
+            this.call = call;
+            this.columns = Set.of(columns);
+        }
+
+        // Whether a sort of this many rows is expected rather than a sign of a missing index
+        boolean maySort(long rows) {
+            return sorts || access == Access.FULL || rows <= SORTED_ROWS;
+        }
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                // TicketRepository
+                finder("countByAgentStatusAndPriority", Access.FULL,
+                        test -> test.ticketRepository.countByAgentStatusAndPriority()),
+                finder("countByCustomerAndStatus", Access.FULL,
+                        test -> test.ticketRepository.countByCustomerAndStatus()),
+                finder("findExistingIds", Access.INDEXED, test -> test.ticketRepository.findExistingIds(TICKETS), "id"),
+                sorting("findAllWithUsersById", test -> test.ticketRepository.findAllWithUsersById(TICKETS), "id"),
+                finder("findVersions", Access.INDEXED, test -> test.ticketRepository.findVersions(TICKETS), "id"),
+                finder("updateIfVersion", Access.INDEXED, test -> test.inRolledBackTransaction(() ->
+                        test.ticketRepository.updateIfVersion(TICKET, 3, Ticket.TicketStatus.OPEN,
+                                Ticket.TicketPriority.LOW, null, null, null, LocalDateTime.now())), "id"),
+                finder("findSummaryPage (customer)", Access.INDEXED, test -> test.ticketRepository.findSummaryPage(
+                        null, CUSTOMER, null, false, null, null, null, null, PageRequest.of(0, 51)), "customer_id"),
+                // An agent's tickets and the unassigned queue are a few percent of all tickets, so walking the
+                // primary key backwards fills a page about as fast as an index on agent_id would
+                finder("findSummaryPage (agent)", Access.ORDERED, test -> test.ticketRepository.findSummaryPage(
+                        null, null, AGENT, false, null, null, null, null, PageRequest.of(0, 51))),
+                finder("findSummaryPage (agent, status, next page)", Access.INDEXED,
+                        test -> test.ticketRepository.findSummaryPage(19000L, null, AGENT, false,
+                                Ticket.TicketStatus.IN_PROGRESS, null, null, null, PageRequest.of(0, 51)),
+                        "agent_id", "status"),
+                finder("findSummaryPage (unassigned)", Access.ORDERED, test -> test.ticketRepository.findSummaryPage(
+                        null, null, null, true, null, null, null, null, PageRequest.of(0, 51))),
+                finder("findSummaryPage (unfiltered)", Access.ORDERED, test -> test.ticketRepository.findSummaryPage(
+                        null, null, null, false, null, null, null, null, PageRequest.of(0, 51))),
+                sorting("findSummaryPage (created range)", test -> test.ticketRepository.findSummaryPage(
+                        null, null, null, false, null, null, LocalDateTime.now().minusHours(2), null,
+                        PageRequest.of(0, 51)), "created_at"),
+                finder("streamExportRows (customer)", Access.INDEXED, test -> test.inRolledBackTransaction(() ->
+                        test.ticketRepository.streamExportRows(CUSTOMER, null, false, null, null, null, null)
+                                .forEach(row -> { })), "customer_id"),
+                finder("findIdRange", Access.INDEXED, test -> test.ticketRepository.findIdRange(), "id"),
+                finder("findSearchRowsInRange", Access.INDEXED,
+                        test -> test.ticketRepository.findSearchRowsInRange(1000L, 2000L), "id"),
+                finder("streamSlaDeadlines", Access.INDEXED, test -> test.inRolledBackTransaction(() ->
+                        test.ticketRepository.streamSlaDeadlines().forEach(row -> { })), "sla_due_at"),
+                finder("reserveThreadPositions", Access.INDEXED, test -> test.inRolledBackTransaction(() ->
+                        test.ticketRepository.reserveThreadPositions(TICKET, 1)), "id"),
+                // TicketService: the JDBC batch of a bulk update
+                finder("bulkUpdatePriority", Access.INDEXED, test -> test.ticketService.bulkUpdatePriority(
+                        List.of(TICKET, TICKET + 1), Ticket.TicketPriority.URGENT, AGENT), "id"),
+                // MessageRepository
+                finder("findByTicketId", Access.INDEXED, test -> test.messageRepository.findByTicketId(TICKET), "ticket_id"),
+                finder("findBySenderId", Access.INDEXED, test -> test.messageRepository.findBySenderId(77L), "sender_id"),
+                finder("findByMessageType", Access.INDEXED,
+                        test -> test.messageRepository.findByMessageType(Message.MessageType.NOTE), "message_type"),
+                finder("findThreadByTicketId", Access.INDEXED,
+                        test -> test.messageRepository.findThreadByTicketId(TICKET), "ticket_id"),
+                finder("findThreadByTicketIdSince", Access.INDEXED,
+                        test -> test.messageRepository.findThreadByTicketIdSince(TICKET, 10L), "ticket_id", "thread_seq"),
+                finder("streamThreads (ticket)", Access.INDEXED, test -> test.inRolledBackTransaction(() ->
+                        test.messageRepository.streamThreads(TICKET, null, null).forEach(row -> { })), "ticket_id"),
+                finder("findContentByTicketIdRange", Access.INDEXED, test -> test.messageRepository
+                        .findContentByTicketIdRange(1000L, 2000L, Message.MessageType.REPLY), "ticket_id"),
+                // OutboxEventRepository
+                // Nearly every event in the outbox is pending, so the ID order is what the index has to give
+                finder("findPendingIds", Access.INDEXED,
+                        test -> test.outboxEventRepository.findPendingIds(0L, PageRequest.of(0, 500)), "id"),
+                finder("countByFailedAtIsNotNull", Access.INDEXED,
+                        test -> test.outboxEventRepository.countByFailedAtIsNotNull(), "failed_at"),
+                // UserRepository
+                finder("findByEmail", Access.INDEXED, test -> test.userRepository.findByEmail("user5@example.com"), "email"),
+                finder("findByRole", Access.INDEXED, test -> test.userRepository.findByRole(User.UserRole.AGENT), "role"),
+                finder("findByRoleAndActive", Access.INDEXED,
+                        test -> test.userRepository.findByRoleAndActive(User.UserRole.AGENT, true), "role", "active"));
+    }
+
+    private static Arguments finder(String name, Access access, Consumer<RepositoryIndexTest> call, String... columns) {
+        return Arguments.of(name, new Finder(access, false, call, columns));
+    }
+
+    // An indexed finder whose index narrows by one column while the rows are ordered by another
+    private static Arguments sorting(String name, Consumer<RepositoryIndexTest> call, String... columns) {
+        return Arguments.of(name, new Finder(Access.INDEXED, true, call, columns));
+    }
+
+    @BeforeEach
+    void seedOnce() {
+        synchronized (seeded) {
+            if (seeded.add(getClass())) {
+                seed(jdbcTemplate);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesAnIndex(String name, Finder finder) throws SQLException {
+        List<RecordedStatements.Statement> statements = RecordedStatements.record(() -> finder.call.accept(this));
+        assertThat(statements).as("statements of %s", name).isNotEmpty();
+
+        // Each distinct statement once; an eager association may be loaded by the same query many times
+        Map<String, RecordedStatements.Statement> distinct = new LinkedHashMap<>();
+        statements.forEach(statement -> distinct.putIfAbsent(statement.getSql(), statement));
+
+        Set<String> indexed = new HashSet<>();
+        List<String> problems = new ArrayList<>();
+        StringBuilder plans = new StringBuilder();
+        try (Connection connection = dataSource.getConnection()) {
+            for (RecordedStatements.Statement statement : distinct.values()) {
+                String plan = explain(connection, statement);
+                plans.append(statement).append('\n').append(plan).append('\n');
+                problems.addAll(check(finder, plan, indexed));
+            }
+        }
+        if (finder.access == Access.INDEXED) {
+            for (String column : finder.columns) {
+                if (!indexed.contains(column)) {
+                    problems.add("no index matches " + column);
+                }
+            }
+        }
+
+        assertThat(problems).as("plans of %s:%n%s", name, plans).isEmpty();
+    }
+
+    /**
+     * Fill the migrated schema with a realistic spread of users, tickets, messages and outbox events
+     * and refresh the planner statistics
+     */
+    abstract void seed(JdbcTemplate jdbc);
+
+    /**
+     * The plan of a recorded statement, as text
+     */
+    abstract String explain(Connection connection, RecordedStatements.Statement statement) throws SQLException;
+
+    /**
+     * What is wrong with one plan of the finder; adds the columns its index conditions match to indexed
+     */
+    abstract List<String> check(Finder finder, String plan, Set<String> indexed);
+
+    // Runs a modifying or streaming call in a transaction that leaves the seeded rows as they were
+    void inRolledBackTransaction(Runnable call) {
+        transactionTemplate.executeWithoutResult(status -> {
+            call.run();
+            status.setRollbackOnly();
+        });
+    }
+}
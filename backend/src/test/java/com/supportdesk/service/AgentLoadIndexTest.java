@@ -0,0 +1,102 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentLoadIndexTest {
+    @Test
+    void concurrentPicksSpreadOverAgents() throws Exception {
+        AgentLoadIndex index = new AgentLoadIndex();
+        for (long agentId = 1; agentId <= 4; agentId++) {
+            index.addAgent(agentId, open(0, 0, 0, 0));
+        }
+
+        // 200 creates race for an agent before any of them is saved
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Callable<Optional<Long>>> picks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            picks.add(() -> index.pickAndIncrement(null, Ticket.TicketPriority.MEDIUM));
+        }
+        for (Future<Optional<Long>> pick : pool.invokeAll(picks)) {
+            assertThat(pick.get()).isPresent();
+        }
+        pool.shutdown();
+
+        for (long agentId = 1; agentId <= 4; agentId++) {
+            assertThat(index.getLoad(agentId)).isEqualTo(50);
+        }
+    }
+
+    @Test
+    void pickSkipsExcludedAgentAndReleaseGivesBackTheReservation() {
+        AgentLoadIndex index = new AgentLoadIndex();
+        index.addAgent(1L, open(0, 0, 0, 0));
+        index.addAgent(2L, open(0, 3, 0, 0));
+
+        Optional<Long> picked = index.pickAndIncrement(1L, Ticket.TicketPriority.HIGH);
+
+        assertThat(picked).contains(2L);
+        assertThat(index.getLoad(2L)).isEqualTo(4);
+        assertThat(index.getWeightedLoad(2L)).isEqualTo(10);
+        index.release(2L, Ticket.TicketPriority.HIGH);
+        assertThat(index.getLoad(2L)).isEqualTo(3);
+        assertThat(index.getWeightedLoad(2L)).isEqualTo(6);
+    }
+
+    @Test
+    void reserveRefusesUntrackedAgents() {
+        AgentLoadIndex index = new AgentLoadIndex();
+        index.addAgent(1L, open(0, 0, 0, 0));
+
+        assertThat(index.reserve(1L, Ticket.TicketPriority.LOW)).isTrue();
+        assertThat(index.reserve(9L, Ticket.TicketPriority.LOW)).isFalse();
+        assertThat(index.getLoad(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void weightedPickPrefersFewerUrgentTicketsOverFewerTickets() {
+        AgentLoadIndex index = new AgentLoadIndex();
+        index.addAgent(1L, open(0, 0, 0, 2)); // 2 urgent: weight 16
+        index.addAgent(2L, open(5, 0, 0, 0)); // 5 low: weight 5
+
+        assertThat(index.pickAndIncrement(null, Ticket.TicketPriority.LOW)).contains(1L);
+        index.release(1L, Ticket.TicketPriority.LOW);
+        assertThat(index.pickLeastWeightedAndIncrement(null, Ticket.TicketPriority.URGENT)).contains(2L);
+        assertThat(index.getWeightedLoad(2L)).isEqualTo(13);
+        assertThat(index.pickLeastWeightedAndIncrement(2L, Ticket.TicketPriority.LOW)).contains(1L);
+    }
+
+    @Test
+    void ticketChangesMoveWeightBetweenAgents() {
+        AgentLoadIndex index = new AgentLoadIndex();
+        index.addAgent(1L, open(0, 1, 0, 0));
+        index.addAgent(2L, open(0, 0, 0, 0));
+
+        // Raised to urgent, then handed to agent 2, then resolved
+        index.onTicketChanged(1L, Ticket.TicketStatus.OPEN, Ticket.TicketPriority.MEDIUM,
+                1L, Ticket.TicketStatus.OPEN, Ticket.TicketPriority.URGENT);
+        assertThat(index.getWeightedLoad(1L)).isEqualTo(8);
+        index.onTicketChanged(1L, Ticket.TicketStatus.OPEN, Ticket.TicketPriority.URGENT,
+                2L, Ticket.TicketStatus.OPEN, Ticket.TicketPriority.URGENT);
+        assertThat(index.getWeightedLoad(1L)).isZero();
+        assertThat(index.getWeightedLoad(2L)).isEqualTo(8);
+        index.onTicketChanged(2L, Ticket.TicketStatus.OPEN, Ticket.TicketPriority.URGENT,
+                2L, Ticket.TicketStatus.RESOLVED, Ticket.TicketPriority.URGENT);
+        assertThat(index.getLoad(2L)).isZero();
+        assertThat(index.getWeightedLoad(2L)).isZero();
+    }
+
+    // Open tickets per priority, in LOW, MEDIUM, HIGH, URGENT order
+    private static long[] open(long low, long medium, long high, long urgent) {
+        return new long[]{low, medium, high, urgent};
+    }
+}
@@ -0,0 +1,105 @@
+package com.supportdesk.service;
+
+import com.supportdesk.TestDatabase;
+import com.supportdesk.dto.ThreadMessage;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thread positions are the cursor for delta reads, so concurrent writers must get consecutive,
+ * distinct positions and the ticket's thread version must follow every change.
+ */
+@SpringBootTest
+class MessageThreadTest {
+    private static final String DATABASE = "message_thread";
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    @Test
+    void concurrentRepliesGetConsecutivePositions() throws Exception {
+        User customer = user("thread-customer@example.com", User.UserRole.CUSTOMER);
+        Ticket ticket = ticket(customer);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Message>> replies = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                String content = "Reply " + i;
+                replies.add(pool.submit(() -> messageService.addReply(ticket.getId(), customer.getId(), content)));
+            }
+            for (Future<Message> reply : replies) {
+                reply.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Long> positions = messageService.getTicketMessages(ticket.getId()).stream()
+                .map(ThreadMessage::getThreadSeq).sorted().toList();
+        assertThat(positions).containsExactlyElementsOf(LongStream.rangeClosed(1, 80).boxed().toList());
+        assertThat(messageService.getThreadVersion(ticket.getId())).isEqualTo(80);
+        assertThat(messageService.getTicketMessagesSince(ticket.getId(), 70L))
+                .extracting(ThreadMessage::getThreadSeq)
+                .containsExactlyElementsOf(LongStream.rangeClosed(71, 80).boxed().toList());
+    }
+
+    @Test
+    void deletingANoteChangesTheThreadVersion() {
+        User customer = user("note-customer@example.com", User.UserRole.CUSTOMER);
+        User agent = user("note-agent@example.com", User.UserRole.AGENT);
+        Ticket ticket = ticket(customer);
+
+        Message note = messageService.addNote(ticket.getId(), agent.getId(), "Internal");
+        long version = messageService.getThreadVersion(ticket.getId());
+        messageService.deleteMessage(note.getId());
+
+        assertThat(messageService.getThreadVersion(ticket.getId())).isGreaterThan(version);
+        assertThat(messageService.getTicketMessagesSince(ticket.getId(), 0L)).isEmpty();
+    }
+
+    private User user(String email, User.UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setFirstName("Thread");
+        user.setLastName("Test");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Ticket ticket(User customer) {
+        Ticket ticket = new Ticket();
+        ticket.setTitle("Thread ticket");
+        ticket.setDescription("Messages are appended concurrently");
+        ticket.setCustomer(customer);
+        return ticketRepository.save(ticket);
+    }
+}
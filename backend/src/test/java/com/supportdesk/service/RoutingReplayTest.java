@@ -0,0 +1,120 @@
+package com.supportdesk.service;
+
+import com.supportdesk.model.Ticket;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replay simulation benchmark for routing: a seeded stream of ticket arrivals and resolutions is
+ * replayed through AgentLoadIndex the way TicketService drives it (reserve, count the saved ticket,
+ * release). Weighted routing must keep the weighted loads closer together than count routing does,
+ * the index must agree with the tickets the replay left open, and the decision time is logged so
+ * runs with different agent counts can be compared.
+ */
+class RoutingReplayTest {
+    private static final Logger log = LoggerFactory.getLogger(RoutingReplayTest.class);
+
+    private static final int EVENTS = 200_000;
+    private static final long[] WEIGHTS = {1, 2, 4, 8};
+
+    @Test
+    void weightedRoutingBalancesWeightedLoad() {
+        Replay weighted = replay(500, true);
+        Replay counted = replay(500, false);
+
+        log.info("500 agents: weighted spread {}, count spread {}", weighted.spread, counted.spread);
+        assertThat(weighted.spread).isLessThan(counted.spread);
+        assertThat(weighted.spread).isLessThanOrEqualTo(2 * WEIGHTS[WEIGHTS.length - 1]);
+    }
+
+    @Test
+    void decisionTimeGrowsSlowlyWithAgents() {
+        for (int agents : new int[]{50, 500, 5000}) {
+            Replay replay = replay(agents, true);
+            log.info("{} agents: {} ns per routing decision, weighted spread {}",
+                    agents, replay.nanosPerDecision, replay.spread);
+        }
+    }
+
+    private static Replay replay(int agents, boolean weighted) {
+        AgentLoadIndex index = new AgentLoadIndex();
+        for (long agentId = 1; agentId <= agents; agentId++) {
+            index.addAgent(agentId, new long[WEIGHTS.length]);
+        }
+
+        // Open tickets as parallel arrays of agent and priority; a resolution swaps the last one in
+        long[] openAgent = new long[EVENTS];
+        Ticket.TicketPriority[] openPriority = new Ticket.TicketPriority[EVENTS];
+        int open = 0;
+        long decisionNanos = 0;
+        int decisions = 0;
+
+        Random random = new Random(42);
+        for (int event = 0; event < EVENTS; event++) {
+            // Arrivals outpace resolutions until about 20 tickets per agent are open
+            if (open > 0 && (open >= agents * 20 || random.nextInt(100) < 45)) {
+                int resolved = random.nextInt(open);
+                index.onTicketChanged(openAgent[resolved], Ticket.TicketStatus.OPEN, openPriority[resolved],
+                        openAgent[resolved], Ticket.TicketStatus.RESOLVED, openPriority[resolved]);
+                open--;
+                openAgent[resolved] = openAgent[open];
+                openPriority[resolved] = openPriority[open];
+                continue;
+            }
+
+            Ticket.TicketPriority priority = priority(random);
+            long start = System.nanoTime();
+            long agentId = (weighted
+                    ? index.pickLeastWeightedAndIncrement(null, priority)
+                    : index.pickAndIncrement(null, priority)).orElseThrow();
+            decisionNanos += System.nanoTime() - start;
+            decisions++;
+
+            index.onTicketChanged(null, null, null, agentId, Ticket.TicketStatus.OPEN, priority);
+            index.release(agentId, priority);
+            openAgent[open] = agentId;
+            openPriority[open] = priority;
+            open++;
+        }
+
+        long[] expected = new long[agents + 1];
+        for (int i = 0; i < open; i++) {
+            expected[(int) openAgent[i]] += WEIGHTS[openPriority[i].ordinal()];
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long agentId = 1; agentId <= agents; agentId++) {
+            long load = index.getWeightedLoad(agentId);
+            assertThat(load).isEqualTo(expected[(int) agentId]);
+            min = Math.min(min, load);
+            max = Math.max(max, load);
+        }
+        return new Replay(max - min, decisionNanos / Math.max(1, decisions));
+    }
+
+    // Roughly 40% low, 35% medium, 18% high and 7% urgent
+    private static Ticket.TicketPriority priority(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            return Ticket.TicketPriority.LOW;
+        }
+        if (roll < 75) {
+            return Ticket.TicketPriority.MEDIUM;
+        }
+        return roll < 93 ? Ticket.TicketPriority.HIGH : Ticket.TicketPriority.URGENT;
+    }
+
+    private static final class Replay {
+        final long spread;
+        final long nanosPerDecision;
+
+        Replay(long spread, long nanosPerDecision) {
+            this.spread = spread;
+            this.nanosPerDecision = nanosPerDecision;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.supportdesk.service;
+
+import com.supportdesk.TestDatabase;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Reconciling while tickets change: a change counted after the GROUP BY has read its snapshot must
+ * survive the swap, and be counted once.
+ */
+@SpringBootTest
+class TicketCountersTest {
+    private static final String DATABASE = "ticket_counters";
+
+    @SpyBean
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketCounters ticketCounters;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    @Test
+    void changesCountedBeforeAReconcileAreCountedOnce() {
+        User customer = user("before@example.com");
+        ticketService.createTicket(customer.getId(), "Counted", "Before the reconcile", Ticket.TicketPriority.HIGH);
+        long total = ticketCounters.getOverallStats().getTotal();
+
+        ticketCounters.reconcile();
+
+        assertThat(ticketCounters.getOverallStats().getTotal()).isEqualTo(total);
+        assertThat(ticketCounters.getCustomerStats(customer.getId()).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void changesCountedWhileReconcilingAreKept() {
+        User customer = user("during@example.com");
+        ticketCounters.reconcile();
+        long total = ticketCounters.getOverallStats().getTotal();
+        long highOpen = highOpen();
+
+        // Another caller creates a ticket once the reconcile has taken its snapshot; the first GROUP BY
+        // returns what it would have read from it, and the second reads the same snapshot
+        List<Object[]> rows = ticketRepository.countByAgentStatusAndPriority();
+        doAnswer(invocation -> {
+            jdbcTemplate.queryForObject("SELECT count(*) FROM tickets", Long.class);
+            CompletableFuture.runAsync(() -> ticketService.createTicket(customer.getId(), "Counted",
+                    "While reconciling", Ticket.TicketPriority.HIGH)).join();
+            return rows;
+        }).when(ticketRepository).countByAgentStatusAndPriority();
+
+        ticketCounters.reconcile();
+
+        assertThat(ticketCounters.getOverallStats().getTotal()).isEqualTo(total + 1);
+        assertThat(highOpen()).isEqualTo(highOpen + 1);
+        assertThat(ticketCounters.getCustomerStats(customer.getId()).getTotal()).isEqualTo(1);
+    }
+
+    private long highOpen() {
+        return ticketCounters.getOverallStats().getByStatusAndPriority()
+                .get(Ticket.TicketStatus.OPEN).get(Ticket.TicketPriority.HIGH);
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setFirstName("Counters");
+        user.setLastName("Test");
+        user.setRole(User.UserRole.CUSTOMER);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,105 @@
+package com.supportdesk.service;
+
+import com.supportdesk.TestDatabase;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.OutboxEvent;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.MessageRepository;
+import com.supportdesk.repository.OutboxEventRepository;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A bad outbox row must neither hold back the rows batched with it nor be deleted unwritten.
+ * The periodic sweep is pushed out of the way so the test drives the pipeline itself.
+ */
+@SpringBootTest(properties = {"supportdesk.history.sweep-ms=3600000", "supportdesk.history.max-attempts=2"})
+class TicketEventPipelineTest {
+    private static final String DATABASE = "event_pipeline";
+
+    @Autowired
+    private TicketEventPipeline pipeline;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    @Test
+    void poisonRowsAreIsolatedAndDeadLettered() {
+        User customer = new User();
+        customer.setEmail("pipeline-customer@example.com");
+        customer.setPassword("x");
+        customer.setFirstName("Pipeline");
+        customer.setLastName("Test");
+        customer.setRole(User.UserRole.CUSTOMER);
+        customer = userRepository.save(customer);
+
+        Ticket ticket = new Ticket();
+        ticket.setTitle("Pipeline ticket");
+        ticket.setDescription("History is written from the outbox");
+        ticket.setCustomer(customer);
+        ticket = ticketRepository.save(ticket);
+
+        OutboxEvent good = event(ticket.getId(), customer.getId(), "Status changed from OPEN to IN_PROGRESS");
+        OutboxEvent missingTicket = event(ticket.getId() + 100000, customer.getId(), "Priority changed from LOW to HIGH");
+        OutboxEvent missingSender = event(ticket.getId(), customer.getId() + 100000, "Unassigned");
+        List<Long> ids = List.of(good.getId(), missingTicket.getId(), missingSender.getId());
+        double deadBefore = meterRegistry.counter("supportdesk.history.dead.letters").count();
+
+        pipeline.process(ids);
+
+        assertThat(messageRepository.findByTicketId(ticket.getId())).extracting(Message::getContent)
+                .containsExactly("Status changed from OPEN to IN_PROGRESS");
+        assertThat(outboxEventRepository.findById(good.getId())).isEmpty();
+        OutboxEvent senderRow = outboxEventRepository.findById(missingSender.getId()).orElseThrow();
+        assertThat(senderRow.getFailedAt()).isNotNull();
+        assertThat(senderRow.getLastError()).contains("Sender not found");
+        OutboxEvent ticketRow = outboxEventRepository.findById(missingTicket.getId()).orElseThrow();
+        assertThat(ticketRow.getAttempts()).isEqualTo(1);
+        assertThat(ticketRow.getFailedAt()).isNull();
+
+        // The second failure uses up the attempts
+        pipeline.process(List.of(missingTicket.getId()));
+
+        ticketRow = outboxEventRepository.findById(missingTicket.getId()).orElseThrow();
+        assertThat(ticketRow.getAttempts()).isEqualTo(2);
+        assertThat(ticketRow.getFailedAt()).isNotNull();
+        assertThat(outboxEventRepository.countByFailedAtIsNotNull()).isEqualTo(2);
+        assertThat(meterRegistry.counter("supportdesk.history.dead.letters").count()).isEqualTo(deadBefore + 2);
+    }
+
+    private OutboxEvent event(Long ticketId, Long senderId, String content) {
+        OutboxEvent event = new OutboxEvent();
+        event.setTicketId(ticketId);
+        event.setSenderId(senderId);
+        event.setMessageType(Message.MessageType.STATUS_UPDATE);
+        event.setContent(content);
+        return outboxEventRepository.save(event);
+    }
+}
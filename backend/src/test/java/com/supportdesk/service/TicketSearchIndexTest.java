@@ -0,0 +1,182 @@
+package com.supportdesk.service;
+
+import com.supportdesk.dto.SearchPage;
+import com.supportdesk.dto.TicketFilter;
+import com.supportdesk.dto.TicketSearchHit;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketSearchIndexTest {
+    @Test
+    void findsTicketsContainingEveryTermIndexedOutOfIdOrder() {
+        TicketSearchIndex index = new TicketSearchIndex();
+        // Pooled IDs from several instances arrive out of order
+        for (long id : new long[] {50, 3, 120, 7, 51}) {
+            index.onTicketSaved(ticket(id, "Printer problem " + id, id % 2 == 0 ? "paper jam" : "toner empty"));
+        }
+        index.addMessage(3L, "still jammed after the paper was replaced");
+
+        SearchPage<TicketSearchHit> page = index.search("printer paper", null, 0, 10);
+
+        assertThat(page.getItems()).extracting(TicketSearchHit::getId).containsExactlyInAnyOrder(3L, 50L, 120L);
+        assertThat(page.getTotal()).isEqualTo(3);
+        assertThat(index.search("toner jam", null, 0, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void postingsStaySortedAndSumRepeatedTerms() {
+        TicketSearchIndex.Postings postings = new TicketSearchIndex.Postings();
+        for (long id : new long[] {9, 2, 5, 2, 11, 1}) {
+            postings.add(id, 1);
+        }
+        TicketSearchIndex.Postings later = new TicketSearchIndex.Postings();
+        later.add(20, 4);
+        postings.addAll(later);
+
+        assertThat(postings.size).isEqualTo(6);
+        assertThat(Arrays.copyOf(postings.ids, postings.size)).containsExactly(1, 2, 5, 9, 11, 20);
+        assertThat(Arrays.copyOf(postings.tfs, postings.size)).containsExactly(1, 2, 1, 1, 1, 4);
+    }
+
+    @Test
+    void ranksByTermFrequencyWithTitlesBoostedAndPages() {
+        TicketSearchIndex index = new TicketSearchIndex();
+        index.onTicketSaved(ticket(1, "Monitor flickers", "The printer next to it is fine"));
+        index.onTicketSaved(ticket(2, "Printer offline", "Cannot reach it from the laptop"));
+        index.onTicketSaved(ticket(3, "Printer offline again", "The printer drops off the network, printer logs attached"));
+        index.onTicketSaved(ticket(4, "Keyboard missing keys", "Nothing to do with printing"));
+        // Same text as ticket 2, so the same score; the higher ID ranks first
+        index.onTicketSaved(ticket(5, "Printer offline", "Cannot reach it from the laptop"));
+
+        SearchPage<TicketSearchHit> page = index.search("printer", null, 0, 10);
+
+        assertThat(page.getItems()).extracting(TicketSearchHit::getId).containsExactly(3L, 5L, 2L, 1L);
+        assertThat(page.getItems()).extracting(TicketSearchHit::getScore).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        assertThat(page.getTotal()).isEqualTo(4);
+        assertThat(page.getNextOffset()).isNull();
+
+        SearchPage<TicketSearchHit> second = index.search("printer", null, 1, 2);
+        assertThat(second.getItems()).extracting(TicketSearchHit::getId).containsExactly(5L, 2L);
+        assertThat(second.getNextOffset()).isEqualTo(3);
+    }
+
+    @Test
+    void stopwordsAreNeitherIndexedNorSearchedFor() {
+        TicketSearchIndex index = new TicketSearchIndex();
+        index.onTicketSaved(ticket(1, "The printer is on fire", "And it will not stop"));
+
+        assertThat(TicketSearchIndex.tokenize("The printer is on fire")).containsExactly("printer", "fire");
+        assertThat(index.search("the printer", null, 0, 10).getItems()).extracting(TicketSearchHit::getId)
+                .containsExactly(1L);
+        assertThat(index.search("the and it", null, 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void updatesReachFiltersAndRanking() {
+        TicketSearchIndex index = new TicketSearchIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.onTicketSaved(ticket(id, "Ticket " + id, "Laptop battery drains"));
+        }
+
+        // A reply to an old ticket adds its terms out of ID order
+        index.addMessage(7L, "The battery is swollen, battery replaced");
+        assertThat(index.search("battery", null, 0, 1).getItems()).extracting(TicketSearchHit::getId)
+                .containsExactly(7L);
+        assertThat(index.search("swollen battery", null, 0, 10).getItems()).extracting(TicketSearchHit::getId)
+                .containsExactly(7L);
+
+        Ticket resolved = ticket(7, "Ticket 7", "Laptop battery drains");
+        resolved.setStatus(Ticket.TicketStatus.RESOLVED);
+        index.onTicketSaved(resolved);
+        TicketFilter open = new TicketFilter();
+        open.setStatus(Ticket.TicketStatus.OPEN);
+        SearchPage<TicketSearchHit> page = index.search("battery", open, 0, 200);
+        assertThat(page.getTotal()).isEqualTo(99);
+        assertThat(page.getItems()).extracting(TicketSearchHit::getId).doesNotContain(7L);
+    }
+
+    @Test
+    void deletedTicketsLeaveResultsAndTerms() {
+        TicketSearchIndex index = new TicketSearchIndex();
+        index.onTicketSaved(ticket(1, "Scanner jams", "Paper stuck"));
+        index.onTicketSaved(ticket(2, "Scanner slow", "Takes minutes per page"));
+        index.onTicketSaved(ticket(3, "Scanner driver", "Unique gibberish xyzzy"));
+
+        index.onTicketDeleted(3L);
+        index.onTicketDeleted(3L);
+        index.onTicketDeleted(99L);
+
+        assertThat(index.size()).isEqualTo(2);
+        // The shorter ticket ranks first
+        assertThat(index.search("scanner", null, 0, 10).getItems()).extracting(TicketSearchHit::getId)
+                .containsExactly(1L, 2L);
+        assertThat(index.search("xyzzy", null, 0, 10).getTotal()).isZero();
+
+        index.onTicketDeleted(1L);
+        index.addMessage(1L, "scanner");
+        assertThat(index.search("scanner", null, 0, 10).getItems()).extracting(TicketSearchHit::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void postingsMatchASortedMapThroughOutOfOrderAddsAndRemovals() {
+        Random random = new Random(7);
+        TicketSearchIndex.Postings postings = new TicketSearchIndex.Postings();
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        for (int op = 0; op < 50_000; op++) {
+            long id = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertThat(postings.remove(id)).isEqualTo(expected.remove(id) != null);
+            } else {
+                int weight = 1 + random.nextInt(3);
+                postings.add(id, weight);
+                expected.merge(id, weight, Integer::sum);
+            }
+            // The tail and the removed entries are merged away once they outgrow √n
+            assertThat(postings.tailSize + postings.removed)
+                    .isLessThanOrEqualTo(Math.max(32, (int) Math.sqrt(postings.size)));
+            if (op % 5_000 == 0) {
+                assertMatches(postings, expected);
+            }
+        }
+        assertMatches(postings, expected);
+        postings.compact();
+        assertThat(postings.tailSize).isZero();
+        assertMatches(postings, expected);
+    }
+
+    private static void assertMatches(TicketSearchIndex.Postings postings, TreeMap<Long, Integer> expected) {
+        assertThat(postings.count()).isEqualTo(expected.size());
+        List<Long> ids = new ArrayList<>();
+        TicketSearchIndex.Postings.Cursor cursor = postings.cursor();
+        while (cursor.next()) {
+            ids.add(cursor.id());
+            assertThat(cursor.tf()).isEqualTo(expected.get(cursor.id()));
+        }
+        assertThat(ids).containsExactlyElementsOf(expected.keySet());
+
+        TicketSearchIndex.Postings.Cursor seeker = postings.cursor();
+        for (long id = 0; id < 20_000; id += 3) {
+            assertThat(seeker.seek(id)).as("id %d", id).isEqualTo(expected.getOrDefault(id, 0));
+        }
+    }
+
+    private static Ticket ticket(long id, String title, String description) {
+        User customer = new User();
+        customer.setId(1000 + id);
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTitle(title);
+        ticket.setDescription(description);
+        ticket.setCustomer(customer);
+        return ticket;
+    }
+}
@@ -0,0 +1,205 @@
+package com.supportdesk.service;
+
+import com.supportdesk.TestDatabase;
+import com.supportdesk.dto.BulkResult;
+import com.supportdesk.model.Message;
+import com.supportdesk.model.Ticket;
+import com.supportdesk.model.User;
+import com.supportdesk.repository.MessageRepository;
+import com.supportdesk.repository.OutboxEventRepository;
+import com.supportdesk.repository.TicketRepository;
+import com.supportdesk.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention benchmark for ticket updates: many writers on one ticket, and overlapping bulk updates.
+ * Whatever wins or loses, every version step must have exactly one history entry, losers must get
+ * the ticket's current state or a per-ticket conflict, and the cache must end up matching the row.
+ * Throughput and conflict counts are logged for comparison between runs.
+ */
+@SpringBootTest
+class TicketUpdateContentionTest {
+    private static final Logger log = LoggerFactory.getLogger(TicketUpdateContentionTest.class);
+    private static final String DATABASE = "update_contention";
+
+    private static final int WRITERS = 16;
+    private static final int UPDATES_PER_WRITER = 25;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketCache ticketCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    @Test
+    void writersOnOneTicketLoseNoUpdates() throws Exception {
+        User agent = user("contention-agent@example.com", User.UserRole.AGENT);
+        Ticket ticket = ticket(user("contention-customer@example.com", User.UserRole.CUSTOMER));
+        Ticket.TicketPriority[] priorities = Ticket.TicketPriority.values();
+
+        AtomicInteger conflicts = new AtomicInteger();
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                        try {
+                            ticketService.updateTicketPriority(ticket.getId(),
+                                    priorities[(writer + i) % priorities.length], agent.getId());
+                        } catch (TicketConflictException e) {
+                            assertThat(e.getCurrent()).isNotNull();
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("{} updates of one ticket by {} writers in {} ms, {} conflicts",
+                WRITERS * UPDATES_PER_WRITER, WRITERS, elapsedMs, conflicts.get());
+
+        Ticket stored = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertThat(historyEntries(ticket.getId())).isEqualTo(stored.getVersion());
+        assertThat(ticketCache.findById(ticket.getId()).orElseThrow())
+                .extracting(Ticket::getVersion, Ticket::getPriority)
+                .containsExactly(stored.getVersion(), stored.getPriority());
+    }
+
+    @Test
+    void staleCachedTicketIsReadAgainAndUpdated() {
+        User agent = user("stale-agent@example.com", User.UserRole.AGENT);
+        Ticket ticket = ticket(user("stale-customer@example.com", User.UserRole.CUSTOMER));
+        ticketCache.findById(ticket.getId());
+
+        // Another instance moves the row on without this cache knowing
+        jdbcTemplate.update("UPDATE tickets SET priority = 'HIGH', version = version + 1 WHERE id = ?", ticket.getId());
+
+        Ticket saved = ticketService.updateTicketStatus(ticket.getId(), Ticket.TicketStatus.IN_PROGRESS, agent.getId());
+
+        assertThat(saved.getVersion()).isEqualTo(2);
+        assertThat(saved.getPriority()).isEqualTo(Ticket.TicketPriority.HIGH);
+        Ticket stored = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(Ticket.TicketStatus.IN_PROGRESS);
+        assertThat(stored.getPriority()).isEqualTo(Ticket.TicketPriority.HIGH);
+    }
+
+    @Test
+    void overlappingBulkUpdatesReportConflictsPerTicket() throws Exception {
+        User agent = user("bulk-contention-agent@example.com", User.UserRole.AGENT);
+        User customer = user("bulk-contention-customer@example.com", User.UserRole.CUSTOMER);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(ticket(customer).getId());
+        }
+        List<Long> unknown = new ArrayList<>(ids);
+        unknown.add(-1L);
+
+        AtomicInteger conflicts = new AtomicInteger();
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                Ticket.TicketPriority priority = Ticket.TicketPriority.values()[w];
+                writers.add(pool.submit(() -> {
+                    for (int round = 0; round < 10; round++) {
+                        List<BulkResult> results = ticketService.bulkUpdatePriority(unknown, priority, agent.getId());
+                        assertThat(results).hasSize(unknown.size());
+                        assertThat(results.get(results.size() - 1).isSuccess()).isFalse();
+                        for (BulkResult result : results.subList(0, ids.size())) {
+                            assertThat(result.isSuccess() || result.isConflict()).isTrue();
+                            if (result.isConflict()) {
+                                conflicts.incrementAndGet();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("40 bulk updates of 50 overlapping tickets in {} ms, {} ticket conflicts", elapsedMs, conflicts.get());
+
+        for (Long id : ids) {
+            Ticket stored = ticketRepository.findById(id).orElseThrow();
+            assertThat(historyEntries(id)).isEqualTo(stored.getVersion());
+            assertThat(ticketCache.findById(id).orElseThrow().getPriority()).isEqualTo(stored.getPriority());
+        }
+    }
+
+    // History entries written for a ticket once the outbox has drained
+    private long historyEntries(Long ticketId) throws InterruptedException {
+        for (int i = 0; i < 100 && outboxEventRepository.count() > 0; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(outboxEventRepository.count()).isZero();
+        return messageRepository.findByTicketId(ticketId).stream()
+                .filter(message -> message.getMessageType() == Message.MessageType.STATUS_UPDATE)
+                .count();
+    }
+
+    private User user(String email, User.UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setFirstName("Contention");
+        user.setLastName("Test");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Ticket ticket(User customer) {
+        Ticket ticket = new Ticket();
+        ticket.setTitle("Contended ticket");
+        ticket.setDescription("Updated by many writers at once");
+        ticket.setCustomer(customer);
+        return ticketRepository.save(ticket);
+    }
+}
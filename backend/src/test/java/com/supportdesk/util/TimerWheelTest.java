@@ -0,0 +1,156 @@
+package com.supportdesk.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The wheel is driven by the times passed to it, so every test runs on its own clock.
+ */
+class TimerWheelTest {
+    // Ticks covered by the first, second and third level; the fourth reaches 2^24 - 1 ticks ahead
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long TOP = 64L * 64 * 64 * 64;
+
+    @Test
+    void firesOnTheTickOfItsDeadlineInDeadlineOrder() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 0);
+        wheel.schedule("ten", 10_000);
+        wheel.schedule("three", 3_000);
+        wheel.schedule("between", 2_500);
+        wheel.schedule("seven", 7_000);
+
+        assertThat(wheel.advance(2_999)).isEmpty();
+        // A deadline within a tick fires at the end of that tick
+        assertThat(wheel.advance(3_000)).containsExactlyInAnyOrder("three", "between");
+        assertThat(wheel.advance(20_000)).containsExactly("seven", "ten");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesInThePastFireOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 50_000);
+        wheel.schedule("overdue", 1_000);
+
+        assertThat(wheel.advance(50_999)).isEmpty();
+        assertThat(wheel.advance(51_000)).containsExactly("overdue");
+    }
+
+    @Test
+    void upperLevelsCascadeDownAndFireOnTheirExactTick() {
+        long[] deadlines = {LEVEL_1 - 1, LEVEL_1, LEVEL_1 + 1, LEVEL_2 - 1, LEVEL_2, LEVEL_2 + 7,
+                LEVEL_3 - 1, LEVEL_3, LEVEL_3 + LEVEL_2 + 3, TOP - 1};
+        TimerWheel<Long> wheel = new TimerWheel<>(1, 0);
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        for (long deadline : deadlines) {
+            assertThat(wheel.advance(deadline - 1)).as("before %d", deadline).isEmpty();
+            assertThat(wheel.advance(deadline)).as("at %d", deadline).containsExactly(deadline);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesBeyondTheTopLevelAreHeldUntilTheyAreDue() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        long far = 3 * TOP + 5;
+        wheel.schedule("far", far);
+        wheel.schedule("near", TOP - 1);
+
+        assertThat(wheel.advance(TOP - 1)).containsExactly("near");
+        assertThat(wheel.advance(far - 1)).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(far)).containsExactly("far");
+    }
+
+    @Test
+    void cancelledDeadlinesNeverFire() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        wheel.schedule("low", 10);
+        wheel.schedule("high", LEVEL_3 + 1);
+        wheel.schedule("kept", LEVEL_3 + LEVEL_2 + 1);
+
+        assertThat(wheel.cancel("low")).isTrue();
+        assertThat(wheel.cancel("low")).isFalse();
+        // Cancelled after it has cascaded down a level
+        assertThat(wheel.advance(LEVEL_3)).isEmpty();
+        assertThat(wheel.cancel("high")).isTrue();
+        assertThat(wheel.cancel("missing")).isFalse();
+
+        assertThat(wheel.advance(2 * LEVEL_3)).containsExactly("kept");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void reschedulingMovesTheOnlyDeadlineOfAKey() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        wheel.schedule("later", 100);
+        wheel.schedule("later", LEVEL_2 + 10);
+        wheel.schedule("sooner", LEVEL_3);
+        wheel.schedule("sooner", 50);
+
+        assertThat(wheel.size()).isEqualTo(2);
+        assertThat(wheel.advance(50)).containsExactly("sooner");
+        assertThat(wheel.advance(LEVEL_2 + 9)).isEmpty();
+        assertThat(wheel.advance(LEVEL_2 + 10)).containsExactly("later");
+        assertThat(wheel.advance(LEVEL_3)).isEmpty();
+    }
+
+    @Test
+    void manyTimersEachFireOnceOnTime() {
+        Random random = new Random(42);
+        long tickMillis = 10;
+        long start = 1_000_000;
+        TimerWheel<Integer> wheel = new TimerWheel<>(tickMillis, start);
+
+        // Deadlines spread over every level and past the top; some are moved, some cancelled
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 200_000; key++) {
+            long deadline = start + tickMillis + (long) (random.nextDouble() * random.nextDouble() * 2 * TOP * tickMillis);
+            wheel.schedule(key, deadline);
+            deadlines.put(key, deadline);
+        }
+        for (int key = 0; key < 200_000; key += 7) {
+            long deadline = start + tickMillis + random.nextInt((int) (LEVEL_3 * tickMillis));
+            wheel.schedule(key, deadline);
+            deadlines.put(key, deadline);
+        }
+        for (int key = 3; key < 200_000; key += 11) {
+            wheel.cancel(key);
+            deadlines.remove(key);
+        }
+        assertThat(wheel.size()).isEqualTo(deadlines.size());
+
+        Set<Integer> fired = new HashSet<>();
+        long previous = start;
+        long end = start + 2 * TOP * tickMillis;
+        while (previous < end) {
+            long now = previous + 1 + random.nextInt(200_000);
+            List<Integer> expired = wheel.advance(now);
+
+            long lastTick = Long.MIN_VALUE;
+            for (Integer key : expired) {
+                long tick = Math.floorDiv(deadlines.get(key) + tickMillis - 1, tickMillis);
+                assertThat(tick).as("key %d", key).isGreaterThan(previous / tickMillis).isLessThanOrEqualTo(now / tickMillis);
+                assertThat(tick).as("order of key %d", key).isGreaterThanOrEqualTo(lastTick);
+                lastTick = tick;
+                assertThat(fired.add(key)).as("key %d fired twice", key).isTrue();
+            }
+            previous = now;
+        }
+
+        assertThat(fired).isEqualTo(deadlines.keySet());
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(end + TOP * tickMillis)).isEmpty();
+    }
+}
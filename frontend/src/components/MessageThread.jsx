@@ -60,7 +60,7 @@ export default function MessageThread({ ticketId, messages, user, onMessageAdded
                             className={`message ${message.messageType.toLowerCase()}`}
                         >
                             <div className="message-header">
-                                <strong>{message.sender?.firstName} {message.sender?.lastName}</strong>
+                                <strong>{message.senderName}</strong>
                                 <span className="message-type">{message.messageType}</span>
                                 <small>{new Date(message.createdAt).toLocaleString()}</small>
                             </div>
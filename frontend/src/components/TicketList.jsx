@@ -1,11 +1,13 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { ticketAPI } from '../services/apiService';
+import { ticketAPI, nextCursor } from '../services/apiService';
 import '../styles/TicketList.css';
 
 export default function TicketList({ customerId, agentId, filterType = 'all', refreshTrigger = 0 }) {
     const [tickets, setTickets] = useState([]);
+    const [cursor, setCursor] = useState(null);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [error, setError] = useState('');
     const navigate = useNavigate();
 
@@ -13,24 +15,27 @@ export default function TicketList({ customerId, agentId, filterType = 'all', re
         fetchTickets();
     }, [customerId, agentId, filterType, refreshTrigger]);
 
+    // One page of the listing, newest first, continuing below the given cursor
+    const fetchPage = (before) => {
+        if (customerId) {
+            return ticketAPI.getTicketsByCustomer(customerId, before);
+        }
+        if (filterType === 'assigned') {
+            return ticketAPI.getTicketsByAgent(agentId, before);
+        }
+        if (filterType === 'unassigned') {
+            return ticketAPI.getUnassignedTickets(before);
+        }
+        return ticketAPI.getAllTickets(before);
+    };
+
     const fetchTickets = async () => {
         try {
             setLoading(true);
-            let response;
-
-            if (customerId) {
-                response = await ticketAPI.getTicketsByCustomer(customerId);
-            } else if (agentId) {
-                if (filterType === 'assigned') {
-                    response = await ticketAPI.getTicketsByAgent(agentId);
-                } else if (filterType === 'unassigned') {
-                    response = await ticketAPI.getUnassignedTickets();
-                } else {
-                    response = await ticketAPI.getAllTickets();
-                }
-            }
-
+            setError('');
+            const response = await fetchPage();
             setTickets(response.data || []);
+            setCursor(nextCursor(response));
         } catch (err) {
             setError('Failed to load tickets');
         } finally {
@@ -38,6 +43,19 @@ export default function TicketList({ customerId, agentId, filterType = 'all', re
         }
     };
 
+    const loadMore = async () => {
+        try {
+            setLoadingMore(true);
+            const response = await fetchPage(cursor);
+            setTickets(prev => [...prev, ...(response.data || [])]);
+            setCursor(nextCursor(response));
+        } catch (err) {
+            setError('Failed to load tickets');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const getStatusColor = (status) => {
         switch (status) {
             case 'OPEN': return '#ff6b6b';
@@ -78,7 +96,7 @@ export default function TicketList({ customerId, agentId, filterType = 'all', re
                                 <span className="ticket-id">#{ticket.id}</span>
                             </div>
 
-                            <p className="ticket-description">{ticket.description.substring(0, 100)}...</p>
+                            <p className="ticket-description">{ticket.preview}...</p>
 
                             <div className="ticket-badges">
                                 <span
@@ -97,9 +115,9 @@ export default function TicketList({ customerId, agentId, filterType = 'all', re
 
                             <div className="ticket-footer">
                                 <small>{new Date(ticket.createdAt).toLocaleDateString()}</small>
-                                {ticket.assignedAgent && (
+                                {ticket.agentName && (
                                     <small className="agent-name">
-                                        Agent: {ticket.assignedAgent.firstName}
+                                        Agent: {ticket.agentName}
                                     </small>
                                 )}
                             </div>
@@ -107,6 +125,12 @@ export default function TicketList({ customerId, agentId, filterType = 'all', re
                     ))}
                 </div>
             )}
+
+            {cursor && (
+                <button className="load-more-btn" onClick={loadMore} disabled={loadingMore}>
+                    {loadingMore ? 'Loading...' : 'Load more'}
+                </button>
+            )}
         </div>
     );
 }
@@ -0,0 +1,46 @@
+import React, { useState, useEffect } from 'react';
+import { ticketAPI } from '../services/apiService';
+
+const STATUS_LABELS = {
+    OPEN: 'Open',
+    IN_PROGRESS: 'In Progress',
+    RESOLVED: 'Resolved',
+    CLOSED: 'Closed',
+    REOPENED: 'Reopened',
+};
+
+export default function TicketStats({ customerId, agentId, refreshTrigger = 0 }) {
+    const [stats, setStats] = useState(null);
+
+    useEffect(() => {
+        fetchStats();
+    }, [customerId, agentId, refreshTrigger]);
+
+    const fetchStats = async () => {
+        try {
+            const response = customerId
+                ? await ticketAPI.getCustomerStats(customerId)
+                : await ticketAPI.getAgentStats(agentId);
+            setStats(response.data);
+        } catch (err) {
+            setStats(null);
+        }
+    };
+
+    if (!stats) return null;
+
+    return (
+        <div className="stats-bar">
+            <div className="stat-card">
+                <span className="stat-value">{stats.total}</span>
+                <span className="stat-label">Total</span>
+            </div>
+            {Object.entries(STATUS_LABELS).map(([status, label]) => (
+                <div key={status} className="stat-card">
+                    <span className="stat-value">{stats.byStatus?.[status] ?? 0}</span>
+                    <span className="stat-label">{label}</span>
+                </div>
+            ))}
+        </div>
+    );
+}
@@ -2,6 +2,7 @@ import React, { useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import TicketList from '../components/TicketList';
+import TicketStats from '../components/TicketStats';
 import '../styles/Dashboard.css';
 
 export default function AgentDashboard() {
@@ -29,6 +30,8 @@ export default function AgentDashboard() {
             </header>
 
             <div className="dashboard-content">
+                <TicketStats agentId={user.id} />
+
                 <div className="tabs">
                     <button
                         className={`tab-btn ${activeTab === 'assigned' ? 'active' : ''}`}
@@ -3,6 +3,7 @@ import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import TicketList from '../components/TicketList';
 import TicketForm from '../components/TicketForm';
+import TicketStats from '../components/TicketStats';
 import '../styles/Dashboard.css';
 
 export default function CustomerDashboard() {
@@ -46,6 +47,11 @@ export default function CustomerDashboard() {
                     </button>
                 </div>
 
+                <TicketStats
+                    customerId={user.id}
+                    refreshTrigger={refreshTrigger}
+                />
+
                 {showCreateForm && (
                     <TicketForm 
                         customerId={user.id}
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
-import { ticketAPI, messageAPI } from '../services/apiService';
+import { ticketAPI, messageAPI, eventAPI } from '../services/apiService';
 import MessageThread from '../components/MessageThread';
 import '../styles/TicketDetails.css';
 
@@ -11,6 +11,7 @@ export default function TicketDetails() {
     const [messages, setMessages] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
+    const [notice, setNotice] = useState('');
     const [user, setUser] = useState(null);
 
     useEffect(() => {
@@ -26,6 +27,25 @@ export default function TicketDetails() {
         fetchTicketDetails();
     }, [id]);
 
+    useEffect(() => {
+        const events = eventAPI.subscribeToTicket(id);
+        events.addEventListener('message', (event) => {
+            appendMessages([JSON.parse(event.data)]);
+        });
+        events.addEventListener('ticket', (event) => {
+            const summary = JSON.parse(event.data);
+            setTicket(prev => prev && ({ ...prev, status: summary.status, priority: summary.priority }));
+        });
+        return () => events.close();
+    }, [id]);
+
+    const appendMessages = (newMessages) => {
+        setMessages(prev => {
+            const known = new Set(prev.map(message => message.id));
+            return [...prev, ...newMessages.filter(message => !known.has(message.id))];
+        });
+    };
+
     const fetchTicketDetails = async () => {
         try {
             setLoading(true);
@@ -42,25 +62,50 @@ export default function TicketDetails() {
     };
 
     const handleStatusChange = async (newStatus) => {
+        setNotice('');
         try {
             await ticketAPI.updateTicketStatus(id, newStatus);
             setTicket(prev => ({ ...prev, status: newStatus }));
         } catch (err) {
-            setError('Failed to update ticket status');
+            if (err.response?.status === 409) {
+                // Someone else changed the ticket meanwhile; show its current state
+                setTicket(err.response.data);
+                setNotice('Ticket was changed by someone else; showing its current state, please try again');
+                return;
+            }
+            setNotice('Failed to update ticket status');
         }
     };
 
     const handlePriorityChange = async (newPriority) => {
+        setNotice('');
         try {
             await ticketAPI.updateTicketPriority(id, newPriority);
             setTicket(prev => ({ ...prev, priority: newPriority }));
         } catch (err) {
-            setError('Failed to update ticket priority');
+            if (err.response?.status === 409) {
+                // Someone else changed the ticket meanwhile; show its current state
+                setTicket(err.response.data);
+                setNotice('Ticket was changed by someone else; showing its current state, please try again');
+                return;
+            }
+            setNotice('Failed to update ticket priority');
+        }
+    };
+
+    const fetchNewMessages = async () => {
+        try {
+            // Thread positions follow commit order, unlike message IDs
+            const lastSeq = messages.reduce((max, message) => Math.max(max, message.threadSeq), 0);
+            const response = await messageAPI.getTicketMessagesSince(id, lastSeq);
+            appendMessages(response.data);
+        } catch (err) {
+            setNotice('Failed to load new messages');
         }
     };
 
     const handleMessageAdded = () => {
-        fetchTicketDetails();
+        fetchNewMessages();
     };
 
     if (loading) return <div className="loading">Loading...</div>;
@@ -71,6 +116,13 @@ export default function TicketDetails() {
         <div className="ticket-details-container">
             <button onClick={() => navigate(-1)} className="back-btn">← Back</button>
 
+            {notice && (
+                <div className="notice">
+                    <span>{notice}</span>
+                    <button onClick={() => setNotice('')} className="notice-dismiss">×</button>
+                </div>
+            )}
+
             <div className="ticket-header">
                 <div className="ticket-title-section">
                     <h1>{ticket.title}</h1>
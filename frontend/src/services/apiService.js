@@ -68,17 +68,21 @@ export const ticketAPI = {
     getTicketById: (id) => 
         apiClient.get(`/tickets/${id}`),
     
-    getTicketsByCustomer: (customerId) => 
-        apiClient.get(`/tickets/customer/${customerId}`),
+    // Ticket listings are newest first, one page at a time; pass nextCursor(response) as before for the next page
+    getTicketsByCustomer: (customerId, before) => 
+        apiClient.get(`/tickets/customer/${customerId}`, { params: { before } }),
     
-    getTicketsByAgent: (agentId) => 
-        apiClient.get(`/tickets/agent/${agentId}`),
+    getTicketsByAgent: (agentId, before) => 
+        apiClient.get(`/tickets/agent/${agentId}`, { params: { before } }),
     
-    getUnassignedTickets: () => 
-        apiClient.get('/tickets/unassigned'),
+    getUnassignedTickets: (before) => 
+        apiClient.get('/tickets/unassigned', { params: { before } }),
     
-    getAllTickets: () => 
-        apiClient.get('/tickets'),
+    getAllTickets: (before) => 
+        apiClient.get('/tickets', { params: { before } }),
+    
+    searchTickets: (q, filters = {}, offset = 0, limit = 50) => 
+        apiClient.get('/tickets/search', { params: { q, ...filters, offset, limit } }),
     
     updateTicketStatus: (id, status) => 
         apiClient.patch(`/tickets/${id}/status`, { status }),
@@ -91,8 +95,18 @@ export const ticketAPI = {
     
     unassignTicket: (id) => 
         apiClient.patch(`/tickets/${id}/unassign`),
+    
+    getAgentStats: (agentId) => 
+        apiClient.get(`/tickets/stats/agent/${agentId}`),
+    
+    getCustomerStats: (customerId) => 
+        apiClient.get(`/tickets/stats/customer/${customerId}`),
 };
 
+// Cursor of the page after a ticket listing response, or null on the last page
+export const nextCursor = (response) => 
+    response.headers['x-next-cursor'] || null;
+
 // Message API calls
 export const messageAPI = {
     addReply: (ticketId, senderId, content) => 
@@ -104,6 +118,9 @@ export const messageAPI = {
     getTicketMessages: (ticketId) => 
         apiClient.get(`/messages/ticket/${ticketId}`),
     
+    getTicketMessagesSince: (ticketId, since) => 
+        apiClient.get(`/messages/ticket/${ticketId}`, { params: { since } }),
+    
     getUserMessages: (userId) => 
         apiClient.get(`/messages/user/${userId}`),
     
@@ -114,4 +131,16 @@ export const messageAPI = {
         apiClient.delete(`/messages/${id}`),
 };
 
+// Server-sent event streams
+export const eventAPI = {
+    // EventSource cannot send headers, so the token goes in the query string
+    subscribeToTicket: (ticketId) => 
+        new EventSource(`${API_BASE_URL}/events/ticket/${ticketId}?${tokenParam()}`),
+    
+    subscribeToAgent: (agentId) => 
+        new EventSource(`${API_BASE_URL}/events/agent/${agentId}?${tokenParam()}`),
+};
+
+const tokenParam = () => new URLSearchParams({ access_token: localStorage.getItem('authToken') || '' }).toString();
+
 export default apiClient;